@@ -0,0 +1,24 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.todo.Todo;
+import com.github.moinmarcell.backend.todo.TodoDto;
+import org.bson.types.ObjectId;
+
+final class Fixtures {
+    static final String DESCRIPTION = "As a user I want to drag cards between columns, so that the board reflects "
+            + "what the team is working on. Acceptance: the card keeps its position after a reload.";
+
+    private Fixtures() {
+    }
+
+    static Todo todo(int index) {
+        Todo todo = new Todo("Todo number " + index, DESCRIPTION);
+        todo.setId(new ObjectId().toHexString());
+        todo.setVersion(0L);
+        return todo;
+    }
+
+    static TodoDto todoDto(int index) {
+        return new TodoDto("Todo number " + index, DESCRIPTION);
+    }
+}
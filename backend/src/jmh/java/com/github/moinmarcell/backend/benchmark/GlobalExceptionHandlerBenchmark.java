@@ -0,0 +1,39 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.exception.CustomErrorMessage;
+import com.github.moinmarcell.backend.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @Setup
+    public void setUp() {
+        globalExceptionHandler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public CustomErrorMessage handleNotFound() {
+        return globalExceptionHandler.handleNotFoundException(new NoSuchElementException("No todo with id 123"));
+    }
+
+    @Benchmark
+    public CustomErrorMessage throwAndHandleNotFound() {
+        try {
+            throw new NoSuchElementException("No todo with id 123");
+        } catch (NoSuchElementException e) {
+            return globalExceptionHandler.handleNotFoundException(e);
+        }
+    }
+}
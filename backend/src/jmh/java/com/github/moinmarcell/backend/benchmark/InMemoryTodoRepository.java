@@ -0,0 +1,45 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.todo.Todo;
+import com.github.moinmarcell.backend.todo.TodoRepository;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Map-backed stand-in for {@link TodoRepository}, so service benchmarks measure the service and not Mongo.
+ * Only the methods used by the benchmarked paths are implemented.
+ */
+final class InMemoryTodoRepository {
+
+    private InMemoryTodoRepository() {
+    }
+
+    static TodoRepository create(Map<String, Todo> todos) {
+        return (TodoRepository) Proxy.newProxyInstance(
+                TodoRepository.class.getClassLoader(),
+                new Class<?>[]{TodoRepository.class},
+                (proxy, method, args) -> invoke(todos, proxy, method, args));
+    }
+
+    private static Object invoke(Map<String, Todo> todos, Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(todos.get((String) args[0]));
+            case "existsById" -> todos.containsKey((String) args[0]);
+            case "insert", "save" -> {
+                if (!(args[0] instanceof Todo todo)) {
+                    throw new UnsupportedOperationException(method.toString());
+                }
+                todos.put(todo.getId(), todo);
+                yield todo;
+            }
+            case "count" -> (long) todos.size();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryTodoRepository";
+            default -> throw new UnsupportedOperationException(method.toString());
+        };
+    }
+}
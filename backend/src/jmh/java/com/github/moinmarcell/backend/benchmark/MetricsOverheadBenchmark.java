@@ -0,0 +1,59 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.config.MongoCommandShape;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.bson.BsonDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the instrumentation added to every request and every Mongo command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private Timer histogramTimer;
+    private Timer plainTimer;
+    private Counter counter;
+    private BsonDocument findCommand;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        histogramTimer = Timer.builder("benchmark.histogram").publishPercentileHistogram().register(registry);
+        plainTimer = Timer.builder("benchmark.plain").register(registry);
+        counter = Counter.builder("benchmark.counter").register(registry);
+        findCommand = BsonDocument.parse("""
+                {"find": "todos", "filter": {"_id": {"$gt": "665f1c2e9b1e8a3d4c5b6a79"}},
+                 "sort": {"_id": 1}, "limit": 51, "$db": "kanban"}""");
+    }
+
+    @Benchmark
+    public void recordHistogramTimer() {
+        histogramTimer.record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void recordPlainTimer() {
+        plainTimer.record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void incrementCounter() {
+        counter.increment();
+    }
+
+    @Benchmark
+    public String renderCommandShape() {
+        return MongoCommandShape.of(findCommand);
+    }
+}
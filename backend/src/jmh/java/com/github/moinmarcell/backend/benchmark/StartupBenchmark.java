@@ -0,0 +1,86 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.BackendApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from {@code SpringApplication.run} to the first successful {@code GET /api/todos}, against an
+ * embedded Mongo started before the measurement. Every fork is a fresh JVM, so each sample is a cold
+ * start; add {@code -jvmArgsAppend -XX:SharedArchiveFile=...} to compare with the CDS archive of the
+ * {@code cds} profile.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+    private static final long FIRST_REQUEST_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    @Param({"true", "false"})
+    String apiDocs;
+
+    private TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private HttpClient httpClient;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        mongod = Mongod.instance().start(Version.Main.V7_0);
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() {
+        httpClient.close();
+        mongod.close();
+    }
+
+    @Benchmark
+    public int startAndServeFirstRequest() throws IOException, InterruptedException {
+        ServerAddress mongoAddress = mongod.current().getServerAddress();
+        context = new SpringApplicationBuilder(BackendApplication.class).run(
+                "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHost() + ":" + mongoAddress.getPort() + "/startup",
+                "--spring.autoconfigure.exclude=de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration",
+                "--server.port=0",
+                "--springdoc.api-docs.enabled=" + apiDocs,
+                "--springdoc.swagger-ui.enabled=" + apiDocs);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/todos")).build();
+        long deadline = System.nanoTime() + FIRST_REQUEST_TIMEOUT_NANOS;
+        while (true) {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 200) {
+                return status;
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("GET /api/todos still answers " + status + " after 30 s");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.todo.TodoDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoDtoValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private TodoDto validTodoDto;
+    private TodoDto invalidTodoDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validTodoDto = Fixtures.todoDto(1);
+        invalidTodoDto = new TodoDto("t", Fixtures.DESCRIPTION);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TodoDto>> validateValidTodoDto() {
+        return validator.validate(validTodoDto);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TodoDto>> validateInvalidTodoDto() {
+        return validator.validate(invalidTodoDto);
+    }
+}
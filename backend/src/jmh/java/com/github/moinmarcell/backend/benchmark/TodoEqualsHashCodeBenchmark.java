@@ -0,0 +1,47 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.todo.Todo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoEqualsHashCodeBenchmark {
+
+    private Todo todo;
+    private Todo equalTodo;
+    private Todo otherTodo;
+
+    @Setup
+    public void setUp() {
+        todo = Fixtures.todo(1);
+        equalTodo = new Todo(todo.getTitle(), todo.getDescription());
+        equalTodo.setId(todo.getId());
+        equalTodo.setCreatedAt(todo.getCreatedAt());
+        equalTodo.setVersion(todo.getVersion());
+        equalTodo.setModSeq(todo.getModSeq());
+        equalTodo.setStatus(todo.getStatus());
+        equalTodo.setRank(todo.getRank());
+        otherTodo = Fixtures.todo(2);
+    }
+
+    @Benchmark
+    public int hashCodeOfTodo() {
+        return todo.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqualTodo() {
+        return todo.equals(equalTodo);
+    }
+
+    @Benchmark
+    public boolean equalsOtherTodo() {
+        return todo.equals(otherTodo);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.moinmarcell.backend.todo.Todo;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoJsonBenchmark {
+
+    @Param({"1", "50", "200"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private Todo todo;
+    private List<Todo> todos;
+    private byte[] todoJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            todos.add(Fixtures.todo(i));
+        }
+        todo = todos.getFirst();
+        todoJson = objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public byte[] serializeTodo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public byte[] serializeTodoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public Todo deserializeTodo() throws IOException {
+        return objectMapper.readValue(todoJson, Todo.class);
+    }
+}
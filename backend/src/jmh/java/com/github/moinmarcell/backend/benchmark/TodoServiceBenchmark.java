@@ -0,0 +1,81 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.github.moinmarcell.backend.todo.Todo;
+import com.github.moinmarcell.backend.todo.TodoCache;
+import com.github.moinmarcell.backend.todo.TodoRepository;
+import com.github.moinmarcell.backend.todo.TodoSequence;
+import com.github.moinmarcell.backend.todo.TodoService;
+import com.github.moinmarcell.backend.todo.TodoStatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service calls against {@link InMemoryTodoRepository}. Update and delete go through
+ * {@code MongoTemplate} and are not covered here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoServiceBenchmark {
+
+    private final Map<String, Todo> todos = new ConcurrentHashMap<>();
+    private TodoService todoService;
+    private TodoCache todoCache;
+    private String existingId;
+
+    @Setup
+    public void setUp() {
+        TodoRepository todoRepository = InMemoryTodoRepository.create(todos);
+        todoCache = new TodoCache(10_000, Duration.ofMinutes(1));
+        // only the round trip for the number of this instance is left out
+        TodoSequence todoSequence = new TodoSequence(null, Duration.ZERO) {
+            private final AtomicLong counter = new AtomicLong();
+
+            @Override
+            public long allocate(int count) {
+                return counter.getAndAdd(count) + 1;
+            }
+        };
+        todoService = new TodoService(todoRepository, null, todoCache, todoSequence, null, new TodoStatsService(null, null, null, Duration.ofHours(1)), null, null);
+        Todo todo = Fixtures.todo(1);
+        todoRepository.insert(todo);
+        existingId = todo.getId();
+    }
+
+    @Benchmark
+    public Todo getTodoCacheHit() {
+        return todoService.getTodo(existingId);
+    }
+
+    @Benchmark
+    public Todo getTodoCacheMiss() {
+        todoCache.evict(existingId);
+        return todoService.getTodo(existingId);
+    }
+
+    @Benchmark
+    public Object getTodoNotFound() {
+        try {
+            return todoService.getTodo("000000000000000000000000");
+        } catch (NoSuchElementException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Todo addTodo() {
+        Todo todo = todoService.addTodo(Fixtures.todoDto(1));
+        // keep the store at a constant size across iterations
+        todos.remove(todo.getId());
+        return todo;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.moinmarcell.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.moinmarcell.backend.todo.Todo;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a list page in each wire format the API negotiates.
+ * The encoded size per format is printed once per trial, next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoWireFormatBenchmark {
+    private static final TypeReference<List<Todo>> TODO_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"50", "200"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<Todo> todos;
+    private byte[] encodedTodos;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory)
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            todos.add(Fixtures.todo(i));
+        }
+        encodedTodos = objectMapper.writeValueAsBytes(todos);
+        System.out.printf("%n%s: %d todos encode to %d bytes%n", format, size, encodedTodos.length);
+    }
+
+    @Benchmark
+    public byte[] serializeTodoList() throws IOException {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public List<Todo> deserializeTodoList() throws IOException {
+        return objectMapper.readValue(encodedTodos, TODO_LIST);
+    }
+}
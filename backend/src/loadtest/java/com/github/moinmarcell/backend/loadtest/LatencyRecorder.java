@@ -0,0 +1,128 @@
+package com.github.moinmarcell.backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two histograms per operation, in microseconds: the response time from the moment the request was
+ * scheduled to be sent, and the service time from the moment it actually was. The first includes the
+ * time a request waited because the client or the server fell behind, so it is not subject to coordinated
+ * omission; the SLO is checked against it. The second shows how much of that is queueing.
+ */
+class LatencyRecorder {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<TodoWorkload.Operation, Stats> stats = new EnumMap<>(TodoWorkload.Operation.class);
+
+    LatencyRecorder() {
+        for (TodoWorkload.Operation operation : TodoWorkload.Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    void record(TodoWorkload.Operation operation, long intendedStartNanos, long startNanos, long endNanos) {
+        Stats operationStats = stats.get(operation);
+        operationStats.responseTime.recordValue(micros(endNanos - intendedStartNanos));
+        operationStats.serviceTime.recordValue(micros(endNanos - startNanos));
+    }
+
+    void error(TodoWorkload.Operation operation) {
+        stats.get(operation).errors.increment();
+    }
+
+    void miss(TodoWorkload.Operation operation) {
+        stats.get(operation).misses.increment();
+    }
+
+    void reset() {
+        stats.values().forEach(Stats::reset);
+    }
+
+    Histogram totalResponseTime() {
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        stats.values().forEach(operationStats -> total.add(operationStats.responseTime));
+        return total;
+    }
+
+    long totalRequests() {
+        return stats.values().stream().mapToLong(Stats::requests).sum();
+    }
+
+    long totalErrors() {
+        return stats.values().stream().mapToLong(operationStats -> operationStats.errors.sum()).sum();
+    }
+
+    void report(PrintStream out, Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        out.printf(Locale.ROOT, "%-8s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "", "requests", "errors", "misses", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99");
+        for (Map.Entry<TodoWorkload.Operation, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            Histogram responseTime = operationStats.responseTime.copy();
+            printRow(out, entry.getKey().name(), responseTime, operationStats.requests(),
+                    operationStats.errors.sum(), operationStats.misses.sum(), operationStats.serviceTime.getValueAtPercentile(99));
+            write(outputDirectory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm"), responseTime);
+            write(outputDirectory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + "-service.hgrm"),
+                    operationStats.serviceTime.copy());
+        }
+        Histogram total = totalResponseTime();
+        printRow(out, "TOTAL", total, totalRequests(), totalErrors(),
+                stats.values().stream().mapToLong(operationStats -> operationStats.misses.sum()).sum(), -1);
+        write(outputDirectory.resolve("total.hgrm"), total);
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram responseTime, long requests, long errors,
+                                 long misses, long serviceP99) {
+        out.printf(Locale.ROOT, "%-8s %9d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9s%n", name, requests, errors, misses,
+                millis(responseTime.getValueAtPercentile(50)),
+                millis(responseTime.getValueAtPercentile(90)),
+                millis(responseTime.getValueAtPercentile(99)),
+                millis(responseTime.getValueAtPercentile(99.9)),
+                millis(responseTime.getMaxValue()),
+                serviceP99 < 0 ? "" : String.format(Locale.ROOT, "%.2f", millis(serviceP99)));
+    }
+
+    // plotted with the HdrHistogram plotter, values scaled to milliseconds
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Stats {
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        final LongAdder errors = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        long requests() {
+            return responseTime.getTotalCount() + errors.sum();
+        }
+
+        void reset() {
+            responseTime.reset();
+            serviceTime.reset();
+            errors.reset();
+            misses.reset();
+        }
+    }
+}
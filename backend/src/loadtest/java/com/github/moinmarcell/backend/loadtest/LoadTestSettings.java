@@ -0,0 +1,46 @@
+package com.github.moinmarcell.backend.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties; the {@code loadtest}
+ * profile of the pom passes its Maven properties through.
+ */
+record LoadTestSettings(
+        double rate,
+        boolean poisson,
+        Duration duration,
+        Duration warmup,
+        double readRatio,
+        int seedTodos,
+        int maxInFlight,
+        Duration p99Threshold,
+        double maxErrorRate,
+        Path outputDirectory
+) {
+
+    static LoadTestSettings fromSystemProperties() {
+        LoadTestSettings settings = new LoadTestSettings(
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                !"fixed".equals(System.getProperty("loadtest.arrivals", "poisson")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Double.parseDouble(System.getProperty("loadtest.read-ratio", "0.8")),
+                Integer.parseInt(System.getProperty("loadtest.seed-todos", "1000")),
+                Integer.parseInt(System.getProperty("loadtest.max-in-flight", "10000")),
+                Duration.parse(System.getProperty("loadtest.p99-threshold", "PT0.05S")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001")),
+                Path.of(System.getProperty("loadtest.output-directory", "target/loadtest")));
+        if (settings.rate <= 0) {
+            throw new IllegalArgumentException("loadtest.rate must be positive");
+        }
+        if (settings.readRatio < 0 || settings.readRatio > 1) {
+            throw new IllegalArgumentException("loadtest.read-ratio must be between 0 and 1");
+        }
+        if (settings.seedTodos < 1) {
+            throw new IllegalArgumentException("loadtest.seed-todos must be at least 1");
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.moinmarcell.backend.loadtest;
+
+import com.github.moinmarcell.backend.BackendApplication;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of the todo API against the application and an embedded Mongo started in this JVM.
+ * Requests are sent at a fixed rate, or with Poisson arrivals at that rate, no matter how many are still
+ * in flight, each on its own virtual thread; a slow server therefore shows up as growing response times
+ * instead of a lower request rate. Exits with status 1 when the p99 response time or the error rate is
+ * over its limit, so {@code mvn -Ploadtest verify} fails.
+ */
+public class TodoLoadTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final TodoWorkload workload;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    TodoLoadTest(LoadTestSettings settings, URI todos) {
+        this.settings = settings;
+        // HTTP/1.1 opens a connection per concurrent request, as independent clients of the API would
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.workload = new TodoWorkload(todos, settings.readRatio(), Math.max(settings.seedTodos(), 1024));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        boolean passed;
+        try (TransitionWalker.ReachedState<RunningMongodProcess> mongod = Mongod.instance().start(Version.Main.V7_0)) {
+            ServerAddress mongoAddress = mongod.current().getServerAddress();
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class).run(
+                    "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHost() + ":" + mongoAddress.getPort() + "/loadtest",
+                    "--spring.autoconfigure.exclude=de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration",
+                    "--server.port=0",
+                    "--logging.level.root=WARN")) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                passed = new TodoLoadTest(settings, URI.create("http://localhost:" + port + "/api/todos")).run();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run() throws IOException, InterruptedException {
+        System.out.printf(Locale.ROOT, "seeding %d todos%n", settings.seedTodos());
+        seed();
+        System.out.printf(Locale.ROOT, "warming up for %s at %.0f requests/s%n", settings.warmup(), settings.rate());
+        generate(settings.warmup());
+        drain();
+        recorder.reset();
+        System.out.printf(Locale.ROOT, "measuring for %s at %.0f requests/s, %.0f%% reads%n",
+                settings.duration(), settings.rate(), settings.readRatio() * 100);
+        generate(settings.duration());
+        drain();
+        recorder.report(System.out, settings.outputDirectory());
+        return checkSlo();
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < settings.seedTodos(); i++) {
+            HttpResponse<String> response = httpClient.send(workload.request(TodoWorkload.Operation.CREATE),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            workload.created(response.body());
+        }
+    }
+
+    /**
+     * Sends requests until the duration is over. The schedule only depends on the rate, not on when the
+     * previous request was actually sent; if this thread falls behind, late requests are sent at once and
+     * measured from their scheduled time.
+     */
+    private void generate(Duration duration) {
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double next = start;
+        while (true) {
+            long intendedStart = (long) next;
+            if (intendedStart - end >= 0) {
+                return;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            send(workload.nextOperation(), intendedStart);
+            next += settings.poisson()
+                    ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos
+                    : meanIntervalNanos;
+        }
+    }
+
+    private void send(TodoWorkload.Operation operation, long intendedStart) {
+        HttpRequest request = workload.request(operation);
+        if (request == null) {
+            // every known todo was deleted, create one instead so the schedule stays the same
+            operation = TodoWorkload.Operation.CREATE;
+            request = workload.request(operation);
+        }
+        if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+            // the client would run out of memory or sockets before the server recovers
+            inFlight.decrementAndGet();
+            recorder.error(operation);
+            return;
+        }
+        TodoWorkload.Operation sentOperation = operation;
+        HttpRequest sentRequest = HttpRequest.newBuilder(request, (name, value) -> true).timeout(REQUEST_TIMEOUT).build();
+        Thread.ofVirtual().name("loadtest-request").start(() -> {
+            try {
+                execute(sentOperation, sentRequest, intendedStart);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private void execute(TodoWorkload.Operation operation, HttpRequest request, long intendedStart) {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            recorder.error(operation);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.error(operation);
+            return;
+        }
+        long end = System.nanoTime();
+        int status = response.statusCode();
+        if (status == 404 && operation != TodoWorkload.Operation.LIST && operation != TodoWorkload.Operation.CREATE) {
+            recorder.miss(operation);
+        } else if (status >= 300) {
+            recorder.error(operation);
+            return;
+        } else if (operation == TodoWorkload.Operation.CREATE) {
+            workload.created(response.body());
+        }
+        recorder.record(operation, intendedStart, start, end);
+    }
+
+    private void drain() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException(inFlight.get() + " requests still in flight after " + DRAIN_TIMEOUT);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean checkSlo() {
+        Histogram total = recorder.totalResponseTime();
+        long p99Micros = total.getValueAtPercentile(99);
+        long thresholdMicros = TimeUnit.NANOSECONDS.toMicros(settings.p99Threshold().toNanos());
+        long requests = recorder.totalRequests();
+        double errorRate = requests == 0 ? 1 : (double) recorder.totalErrors() / requests;
+        boolean passed = true;
+        if (p99Micros > thresholdMicros) {
+            System.out.printf(Locale.ROOT, "FAILED: p99 response time %.2f ms is over %.2f ms%n",
+                    p99Micros / 1000.0, thresholdMicros / 1000.0);
+            passed = false;
+        }
+        if (errorRate > settings.maxErrorRate()) {
+            System.out.printf(Locale.ROOT, "FAILED: error rate %.4f%% is over %.4f%%%n",
+                    errorRate * 100, settings.maxErrorRate() * 100);
+            passed = false;
+        }
+        if (passed) {
+            System.out.printf(Locale.ROOT, "PASSED: p99 %.2f ms, error rate %.4f%%%n", p99Micros / 1000.0, errorRate * 100);
+        }
+        return passed;
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.moinmarcell.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The request mix: reads are split between the first page and single todos, writes between creating,
+ * updating and deleting. Ids of created todos go into a fixed size ring, so reads and writes hit todos
+ * that exist without any coordination between requests; a todo deleted meanwhile answers 404, which is
+ * counted as a miss and not as an error.
+ */
+class TodoWorkload {
+    // descriptions are log-normal: most are a sentence or two, a few are pasted logs or specifications
+    private static final double DESCRIPTION_MEDIAN = 120;
+    private static final double DESCRIPTION_SIGMA = 1.2;
+    private static final int DESCRIPTION_MAX = 16_384;
+    private static final double EMPTY_DESCRIPTION_RATIO = 0.1;
+    private static final String WORDS = "the quick brown fox jumps over a lazy dog while the board keeps "
+            + "track of todo items that move from todo to doing to done before release ";
+
+    enum Operation {
+        LIST, GET, CREATE, UPDATE, DELETE
+    }
+
+    private final URI todos;
+    private final double readRatio;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReferenceArray<String> ids;
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    TodoWorkload(URI todos, double readRatio, int idCapacity) {
+        this.todos = todos;
+        this.readRatio = readRatio;
+        this.ids = new AtomicReferenceArray<>(idCapacity);
+    }
+
+    Operation nextOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < readRatio) {
+            return random.nextInt(10) == 0 ? Operation.LIST : Operation.GET;
+        }
+        int write = random.nextInt(10);
+        return write < 5 ? Operation.CREATE : write < 9 ? Operation.UPDATE : Operation.DELETE;
+    }
+
+    /**
+     * Returns {@code null} when the operation needs an existing todo and none is known yet.
+     */
+    HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case LIST -> HttpRequest.newBuilder(todos).GET().build();
+            case CREATE -> HttpRequest.newBuilder(todos)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(todoJson()))
+                    .build();
+            case GET -> {
+                String id = anyId();
+                yield id == null ? null : HttpRequest.newBuilder(todos.resolve("todos/" + id)).GET().build();
+            }
+            case UPDATE -> {
+                String id = anyId();
+                yield id == null ? null : HttpRequest.newBuilder(todos.resolve("todos/" + id))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(todoJson()))
+                        .build();
+            }
+            case DELETE -> {
+                String id = takeId();
+                yield id == null ? null : HttpRequest.newBuilder(todos.resolve("todos/" + id)).DELETE().build();
+            }
+        };
+    }
+
+    void created(String responseBody) {
+        try {
+            remember(objectMapper.readTree(responseBody).get("id").asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void remember(String id) {
+        ids.set((int) (nextSlot.getAndIncrement() % ids.length()), id);
+    }
+
+    private String anyId() {
+        long known = Math.min(nextSlot.get(), ids.length());
+        return known == 0 ? null : ids.get(ThreadLocalRandom.current().nextInt((int) known));
+    }
+
+    // taken out of the ring, so two deletes of the same todo are rare
+    private String takeId() {
+        long known = Math.min(nextSlot.get(), ids.length());
+        return known == 0 ? null : ids.getAndSet(ThreadLocalRandom.current().nextInt((int) known), null);
+    }
+
+    private String todoJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode todo = objectMapper.createObjectNode()
+                .put("title", text(random, 3 + random.nextInt(60)))
+                .put("description", random.nextDouble() < EMPTY_DESCRIPTION_RATIO ? "" : text(random, descriptionLength(random)));
+        return todo.toString();
+    }
+
+    private static int descriptionLength(ThreadLocalRandom random) {
+        double length = Math.exp(Math.log(DESCRIPTION_MEDIAN) + DESCRIPTION_SIGMA * random.nextGaussian());
+        return (int) Math.min(DESCRIPTION_MAX, Math.max(1, length));
+    }
+
+    private static String text(ThreadLocalRandom random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int start = random.nextInt(WORDS.length());
+            text.append(WORDS, start, Math.min(WORDS.length(), start + length - text.length()));
+        }
+        return text.toString().strip().isEmpty() ? "todo" : text.toString();
+    }
+}
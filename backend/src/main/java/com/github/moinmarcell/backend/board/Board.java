@@ -0,0 +1,6 @@
+package com.github.moinmarcell.backend.board;
+
+import java.util.List;
+
+public record Board(List<BoardColumn> columns) {
+}
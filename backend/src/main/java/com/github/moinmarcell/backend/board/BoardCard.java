@@ -0,0 +1,4 @@
+package com.github.moinmarcell.backend.board;
+
+public record BoardCard(String id, String title, String rank, Long version) {
+}
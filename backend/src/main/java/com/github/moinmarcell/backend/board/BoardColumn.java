@@ -0,0 +1,8 @@
+package com.github.moinmarcell.backend.board;
+
+import com.github.moinmarcell.backend.todo.TodoStatus;
+
+import java.util.List;
+
+public record BoardColumn(TodoStatus status, long count, List<BoardCard> cards) {
+}
@@ -0,0 +1,39 @@
+package com.github.moinmarcell.backend.board;
+
+import com.github.moinmarcell.backend.todo.TodoService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BoardController {
+
+    private final BoardService boardService;
+    private final TodoService todoService;
+
+    public BoardController(BoardService boardService, TodoService todoService) {
+        this.boardService = boardService;
+        this.todoService = todoService;
+    }
+
+    @GetMapping("/board")
+    public Board getBoard(@RequestParam(required = false) Integer limit, WebRequest webRequest) {
+        // same snapshot as the todo list, so any write invalidates the board tag as well
+        String snapshot = todoService.getTodosSnapshot();
+        if (webRequest.checkNotModified("\"board-" + limit + "-" + snapshot + "\"")) {
+            return null;
+        }
+        return boardService.getBoard(limit);
+    }
+
+    @GetMapping("/boards/{boardId}")
+    public Board getBoard(@PathVariable String boardId, @RequestParam(required = false) Integer limit) {
+        return boardService.getBoard(boardId, limit);
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.moinmarcell.backend.board;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.github.moinmarcell.backend.todo.Todo;
+import com.github.moinmarcell.backend.todo.TodoPartition;
+import com.github.moinmarcell.backend.todo.TodoPartitionRouter;
+import com.github.moinmarcell.backend.todo.TodoStatus;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+public class BoardService {
+    public static final int DEFAULT_COLUMN_LIMIT = 50;
+    public static final int MAX_COLUMN_LIMIT = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final TodoPartitionRouter todoPartitionRouter;
+
+    public BoardService(MongoTemplate mongoTemplate, TodoPartitionRouter todoPartitionRouter) {
+        this.mongoTemplate = mongoTemplate;
+        this.todoPartitionRouter = todoPartitionRouter;
+    }
+
+    /**
+     * The columns of the default board, the board the board-less endpoints work on.
+     */
+    public Board getBoard(Integer limit) {
+        String collection = mongoTemplate.getCollectionName(Todo.class);
+        return toBoard(mongoTemplate.aggregate(boardAggregation(TodoPartition.defaultBoardCriteria(), collection,
+                columnLimit(limit)), collection, Document.class));
+    }
+
+    /**
+     * The columns of one board, read from its partition only.
+     */
+    public Board getBoard(String boardId, Integer limit) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        return toBoard(partition.mongoTemplate().aggregate(boardAggregation(partition.boardCriteria(), partition.collection(),
+                columnLimit(limit)), partition.collection(), Document.class));
+    }
+
+    private static Board toBoard(AggregationResults<Document> results) {
+        Map<TodoStatus, Long> counts = new EnumMap<>(TodoStatus.class);
+        Map<TodoStatus, List<BoardCard>> cards = new EnumMap<>(TodoStatus.class);
+        for (Document result : results) {
+            TodoStatus status = TodoStatus.valueOf(result.getString("column"));
+            if (result.containsKey("count")) {
+                counts.put(status, result.get("count", Number.class).longValue());
+            } else {
+                cards.computeIfAbsent(status, column -> new ArrayList<>()).add(toCard(result));
+            }
+        }
+        return new Board(Arrays.stream(TodoStatus.values())
+                .map(status -> new BoardColumn(status, counts.getOrDefault(status, 0L), cards.getOrDefault(status, List.of())))
+                .toList());
+    }
+
+    /**
+     * One pipeline per column for its top cards and one for its count, joined by {@code $unionWith} so the
+     * board still takes a single round trip. Each pipeline matches one column of the board, so the
+     * (boardId, status, rank) index serves the match, the sort and the limit, and the count is taken from
+     * the index; no stage reads more than the cards it returns. Todos stored before columns existed have
+     * no status and are shown in the first column.
+     */
+    static Aggregation boardAggregation(Criteria board, String collection, int columnLimit) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        for (TodoStatus status : TodoStatus.values()) {
+            Document match = new Document("$match", columnMatch(board, status));
+            List<Document> cards = List.of(match,
+                    new Document("$sort", new Document("rank", 1)),
+                    new Document("$limit", columnLimit),
+                    new Document("$project", new Document("_id", 0)
+                            .append("column", new Document("$literal", status.name()))
+                            .append("id", "$_id")
+                            .append("title", 1)
+                            .append("rank", 1)
+                            .append("version", 1)));
+            List<Document> count = List.of(match,
+                    new Document("$count", "count"),
+                    new Document("$addFields", new Document("column", status.name())));
+            for (List<Document> pipeline : List.of(cards, count)) {
+                if (operations.isEmpty()) {
+                    pipeline.forEach(stage -> operations.add(context -> stage));
+                } else {
+                    operations.add(context -> new Document("$unionWith", new Document("coll", collection).append("pipeline", pipeline)));
+                }
+            }
+        }
+        return Aggregation.newAggregation(operations);
+    }
+
+    private static Document columnMatch(Criteria board, TodoStatus status) {
+        Document match = new Document(board.getCriteriaObject());
+        if (status == TodoStatus.TODO) {
+            return match.append("status", new Document("$in", Arrays.asList(status.name(), null)));
+        }
+        return match.append("status", status.name());
+    }
+
+    private static BoardCard toCard(Document card) {
+        Number version = card.get("version", Number.class);
+        return new BoardCard(Objects.toString(card.get("id"), null), card.getString("title"),
+                card.getString("rank"), version == null ? null : version.longValue());
+    }
+
+    private static int columnLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_COLUMN_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_COLUMN_LIMIT);
+    }
+}
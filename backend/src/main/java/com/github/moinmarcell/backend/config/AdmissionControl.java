@@ -0,0 +1,257 @@
+package com.github.moinmarcell.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.moinmarcell.backend.exception.ServiceUnavailableException;
+import com.github.moinmarcell.backend.exception.TooManyRequestsException;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a request may start, with separate budgets for reads and writes. Each budget limits
+ * the request rate and the number of requests in flight, globally and, if enabled, per client.
+ * <p>
+ * A client is the remote address of the request. Behind a load balancer or proxy that is the proxy's
+ * address unless {@code server.forward-headers-strategy} is set, so the per-client limits are off by
+ * default and should only be enabled together with it.
+ * <p>
+ * Per-client limits answer 429, global limits answer 503, both before any work is done. The global
+ * concurrency limits adapt to Mongo latency: they shrink by a factor while the average command time
+ * is above the target and grow by one request per interval while it is below.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "todos.admission.enabled", havingValue = "true")
+public class AdmissionControl implements CommandListener, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final Budget reads;
+    private final Budget writes;
+    private final boolean clientLimits;
+    private final double clientReadRate;
+    private final double clientWriteRate;
+    private final int clientMaxConcurrency;
+    private final long targetLatencyNanos;
+    private final Duration retryAfter;
+    private final Cache<String, ClientBudget> clients = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+    private final LongAdder commandNanos = new LongAdder();
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder clientRejections = new LongAdder();
+
+    public AdmissionControl(@Value("${todos.admission.read.rate:2000}") double readRate,
+                            @Value("${todos.admission.read.max-concurrency:200}") int readMaxConcurrency,
+                            @Value("${todos.admission.write.rate:500}") double writeRate,
+                            @Value("${todos.admission.write.max-concurrency:50}") int writeMaxConcurrency,
+                            @Value("${todos.admission.min-concurrency:4}") int minConcurrency,
+                            @Value("${todos.admission.client.enabled:false}") boolean clientLimits,
+                            @Value("${todos.admission.client.read-rate:100}") double clientReadRate,
+                            @Value("${todos.admission.client.write-rate:20}") double clientWriteRate,
+                            @Value("${todos.admission.client.max-concurrency:20}") int clientMaxConcurrency,
+                            @Value("${todos.admission.target-latency:50ms}") Duration targetLatency,
+                            @Value("${todos.admission.retry-after:1s}") Duration retryAfter) {
+        long now = System.nanoTime();
+        this.reads = new Budget("read", new TokenBucket(readRate, (int) Math.ceil(readRate), now),
+                Math.min(minConcurrency, readMaxConcurrency), readMaxConcurrency);
+        this.writes = new Budget("write", new TokenBucket(writeRate, (int) Math.ceil(writeRate), now),
+                Math.min(minConcurrency, writeMaxConcurrency), writeMaxConcurrency);
+        this.clientLimits = clientLimits;
+        this.clientReadRate = clientReadRate;
+        this.clientWriteRate = clientWriteRate;
+        this.clientMaxConcurrency = clientMaxConcurrency;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Admits a request or throws {@link TooManyRequestsException} or {@link ServiceUnavailableException}.
+     * The returned permit must be released once the request completed.
+     */
+    public Permit admit(String client, boolean write) {
+        long now = System.nanoTime();
+        Budget budget = write ? writes : reads;
+        if (!clientLimits) {
+            budget.enter(now, retryAfter);
+            return new Permit(budget, null);
+        }
+        ClientBudget clientBudget = clients.get(client, key -> new ClientBudget(
+                new TokenBucket(clientReadRate, (int) Math.ceil(clientReadRate), now),
+                new TokenBucket(clientWriteRate, (int) Math.ceil(clientWriteRate), now)));
+        long clientWait = (write ? clientBudget.writeRate() : clientBudget.readRate()).tryAcquire(now);
+        if (clientWait > 0) {
+            clientRejections.increment();
+            throw new TooManyRequestsException("Request rate limit exceeded", Duration.ofNanos(clientWait));
+        }
+        if (!tryEnter(clientBudget.inFlight(), clientMaxConcurrency)) {
+            clientRejections.increment();
+            throw new TooManyRequestsException("Too many concurrent requests", retryAfter);
+        }
+        try {
+            budget.enter(now, retryAfter);
+        } catch (RuntimeException e) {
+            clientBudget.inFlight().decrementAndGet();
+            throw e;
+        }
+        return new Permit(budget, clientBudget.inFlight());
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        recordLatency(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        recordLatency(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    void recordLatency(long elapsedNanos) {
+        commandNanos.add(elapsedNanos);
+        commands.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${todos.admission.adjust-interval:1s}")
+    public void adjustLimits() {
+        long count = commands.sumThenReset();
+        long nanos = commandNanos.sumThenReset();
+        if (count == 0) {
+            return;
+        }
+        boolean overloaded = nanos / count > targetLatencyNanos;
+        reads.adjust(overloaded);
+        writes.adjust(overloaded);
+        if (overloaded) {
+            log.debug("Mongo averaged {} ms per command, lowered concurrency to {} reads and {} writes",
+                    TimeUnit.NANOSECONDS.toMillis(nanos / count), reads.limit, writes.limit);
+        }
+    }
+
+    int readLimit() {
+        return reads.limit;
+    }
+
+    int writeLimit() {
+        return writes.limit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        reads.bindTo(registry);
+        writes.bindTo(registry);
+        FunctionCounter.builder("todos.admission.rejected", clientRejections, LongAdder::sum)
+                .description("Requests rejected by a per-client limit")
+                .tag("scope", "client")
+                .register(registry);
+    }
+
+    private static boolean tryEnter(AtomicInteger inFlight, int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public static final class Permit {
+        private final Budget budget;
+        private final AtomicInteger clientInFlight;
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Permit(Budget budget, AtomicInteger clientInFlight) {
+            this.budget = budget;
+            this.clientInFlight = clientInFlight;
+        }
+
+        public void release() {
+            if (released.compareAndSet(0, 1)) {
+                budget.inFlight.decrementAndGet();
+                if (clientInFlight != null) {
+                    clientInFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private record ClientBudget(TokenBucket readRate, TokenBucket writeRate, AtomicInteger inFlight) {
+
+        ClientBudget(TokenBucket readRate, TokenBucket writeRate) {
+            this(readRate, writeRate, new AtomicInteger());
+        }
+    }
+
+    private static final class Budget {
+        private final String name;
+        private final TokenBucket rate;
+        private final int minLimit;
+        private final int maxLimit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private volatile int limit;
+
+        Budget(String name, TokenBucket rate, int minLimit, int maxLimit) {
+            this.name = name;
+            this.rate = rate;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = maxLimit;
+        }
+
+        void enter(long now, Duration retryAfter) {
+            long wait = rate.tryAcquire(now);
+            if (wait > 0) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Server is over its " + name + " rate limit", Duration.ofNanos(wait));
+            }
+            if (!tryEnter(inFlight, limit)) {
+                rejected.increment();
+                throw new ServiceUnavailableException("Server is at its " + name + " concurrency limit", retryAfter);
+            }
+        }
+
+        // only called from the scheduler thread, so the read-modify-write of limit does not race
+        void adjust(boolean overloaded) {
+            limit = overloaded
+                    ? Math.max(minLimit, (int) (limit * DECREASE_FACTOR))
+                    : Math.min(maxLimit, limit + 1);
+        }
+
+        void bindTo(MeterRegistry registry) {
+            Gauge.builder("todos.admission.in.flight", inFlight, AtomicInteger::get)
+                    .description("Admitted requests in flight")
+                    .tag("kind", name)
+                    .register(registry);
+            Gauge.builder("todos.admission.concurrency.limit", this, budget -> budget.limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("kind", name)
+                    .register(registry);
+            FunctionCounter.builder("todos.admission.rejected", rejected, LongAdder::sum)
+                    .description("Requests rejected by a global limit")
+                    .tag("scope", name)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.moinmarcell.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "todos.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig implements WebMvcConfigurer {
+    private final AdmissionControl admissionControl;
+
+    public AdmissionControlConfig(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionInterceptor(admissionControl)).addPathPatterns("/api/todos", "/api/todos/**", "/api/boards/*/todos", "/api/boards/*/todos/**");
+    }
+
+    /**
+     * Feeds Mongo command times into the adaptive concurrency limits.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer admissionLatencyCustomizer() {
+        return builder -> builder.addCommandListener(admissionControl);
+    }
+}
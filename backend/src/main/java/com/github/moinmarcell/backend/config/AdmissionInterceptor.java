@@ -0,0 +1,39 @@
+package com.github.moinmarcell.backend.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs {@link AdmissionControl} before the handler. Streaming responses keep their permit until the
+ * async dispatch completed, so an export counts as in flight for as long as it writes.
+ */
+class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admissionControl;
+
+    AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String method = request.getMethod();
+        boolean write = !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method);
+        request.setAttribute(PERMIT_ATTRIBUTE, admissionControl.admit(request.getRemoteAddr(), write));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdmissionControl.Permit permit) {
+            permit.release();
+        }
+    }
+}
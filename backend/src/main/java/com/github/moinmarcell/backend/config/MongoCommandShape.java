@@ -0,0 +1,58 @@
+package com.github.moinmarcell.backend.config;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a Mongo command with all literal values replaced by {@code ?}, so slow commands can be logged
+ * without leaking todo contents and grouped by shape.
+ */
+public final class MongoCommandShape {
+    private static final Set<String> IGNORED_KEYS = Set.of("$db", "lsid", "$clusterTime", "txnNumber", "$readPreference");
+
+    private MongoCommandShape() {
+    }
+
+    public static String of(BsonDocument command) {
+        StringBuilder shape = new StringBuilder();
+        appendDocument(shape, command);
+        return shape.toString();
+    }
+
+    private static void appendDocument(StringBuilder shape, BsonDocument document) {
+        shape.append('{');
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+            if (IGNORED_KEYS.contains(entry.getKey())) {
+                continue;
+            }
+            if (!first) {
+                shape.append(", ");
+            }
+            first = false;
+            shape.append(entry.getKey()).append(": ");
+            appendValue(shape, entry.getValue());
+        }
+        shape.append('}');
+    }
+
+    private static void appendValue(StringBuilder shape, BsonValue value) {
+        if (value.isDocument()) {
+            appendDocument(shape, value.asDocument());
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            shape.append('[');
+            // one element is enough to show the shape of the array
+            if (!array.isEmpty()) {
+                appendValue(shape, array.get(0));
+            }
+            shape.append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.moinmarcell.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * With virtual threads every request gets its own thread, so the connection pool is what bounds
+     * concurrency against Mongo. Requests that cannot get a connection in time fail fast instead of queueing.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${todos.mongodb.pool.max-size:100}") int maxSize,
+            @Value("${todos.mongodb.pool.max-wait:2s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        MongoPoolWaitTimeListener poolWaitTimeListener = new MongoPoolWaitTimeListener(meterRegistry);
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(poolWaitTimeListener));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowCommandCustomizer(
+            @Value("${todos.mongodb.slow-command.threshold:100ms}") Duration threshold,
+            @Value("${todos.mongodb.slow-command.sample-rate:0.1}") double sampleRate,
+            MeterRegistry meterRegistry) {
+        SlowMongoCommandListener slowCommandListener = new SlowMongoCommandListener(threshold, sampleRate, meterRegistry);
+        return builder -> builder.addCommandListener(slowCommandListener);
+    }
+}
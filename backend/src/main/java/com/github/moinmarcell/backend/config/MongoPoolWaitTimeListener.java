@@ -0,0 +1,41 @@
+package com.github.moinmarcell.backend.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long requests wait for a pooled Mongo connection. This is where time goes once the
+ * pool is the concurrency limit.
+ */
+public class MongoPoolWaitTimeListener implements ConnectionPoolListener {
+    private final Timer checkedOut;
+    private final Timer checkOutFailed;
+
+    public MongoPoolWaitTimeListener(MeterRegistry meterRegistry) {
+        this.checkedOut = waitTimer(meterRegistry, "success");
+        this.checkOutFailed = waitTimer(meterRegistry, "failed");
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkOutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("todos.mongodb.pool.wait")
+                .description("Time spent waiting for a connection from the Mongo connection pool")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.moinmarcell.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts Mongo commands slower than a threshold and logs the shape of a sample of them.
+ * The command is only available when it starts, so the shape of a sampled command is rendered then and
+ * kept until the command completes. The pending shapes are bounded, a command whose connection dies
+ * without a completion event is dropped once newer ones push it out.
+ */
+public class SlowMongoCommandListener implements CommandListener {
+    private static final Logger log = LoggerFactory.getLogger(SlowMongoCommandListener.class);
+    private static final int MAX_PENDING_SHAPES = 1024;
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final Counter slowCommands;
+    private final Cache<Integer, String> sampledShapes = Caffeine.newBuilder()
+            .maximumSize(MAX_PENDING_SHAPES)
+            .build();
+
+    public SlowMongoCommandListener(Duration threshold, double sampleRate, MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.slowCommands = Counter.builder("todos.mongodb.slow.commands")
+                .description("Mongo commands slower than the slow command threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sampledShapes.put(event.getRequestId(), MongoCommandShape.of(event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void completed(int requestId, String commandName, long elapsedNanos) {
+        String shape = sampledShapes.asMap().remove(requestId);
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        slowCommands.increment();
+        if (shape != null) {
+            log.warn("Slow Mongo command {} took {} ms: {}", commandName, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), shape);
+        }
+    }
+}
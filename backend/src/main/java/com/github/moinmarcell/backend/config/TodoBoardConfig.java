@@ -0,0 +1,23 @@
+package com.github.moinmarcell.backend.config;
+
+import com.github.moinmarcell.backend.todo.ConfiguredTodoPartitionRouter;
+import com.github.moinmarcell.backend.todo.TodoBoardProperties;
+import com.github.moinmarcell.backend.todo.TodoPartitionRouter;
+import com.mongodb.client.MongoClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+@Configuration
+@EnableConfigurationProperties(TodoBoardProperties.class)
+public class TodoBoardConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(TodoPartitionRouter.class)
+    public TodoPartitionRouter todoPartitionRouter(MongoTemplate mongoTemplate, MongoClient mongoClient,
+                                                   TodoBoardProperties todoBoardProperties) {
+        return new ConfiguredTodoPartitionRouter(mongoTemplate, mongoClient, todoBoardProperties);
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.moinmarcell.backend.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count it keeps the time at which the bucket would be
+ * empty again, so taking a token is a single compare-and-set and no refill thread is needed.
+ */
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong emptyAt;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.emptyAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token, returning 0 on success or the nanos until the next token when the bucket is empty.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = emptyAt.get();
+            // nanoTime values are only compared by difference, they may overflow
+            long next = (current - nowNanos < 0 ? nowNanos : current) + intervalNanos;
+            long debt = next - nowNanos - burstNanos;
+            if (debt > 0) {
+                return debt;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
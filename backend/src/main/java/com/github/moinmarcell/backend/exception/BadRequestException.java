@@ -0,0 +1,16 @@
+package com.github.moinmarcell.backend.exception;
+
+/**
+ * Invalid input from the client, like a malformed cursor or an out of range limit. Only this type is
+ * answered with 400, an {@link IllegalArgumentException} from inside the application stays a 500.
+ */
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.moinmarcell.backend.exception;
+
+public class ChangesTokenExpiredException extends RuntimeException {
+
+    public ChangesTokenExpiredException(String message) {
+        super(message);
+    }
+}
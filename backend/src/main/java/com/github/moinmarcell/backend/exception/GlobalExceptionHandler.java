@@ -1,34 +1,141 @@
 package com.github.moinmarcell.backend.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    private final Counter notFoundErrors;
+    private final Counter badRequestErrors;
+    private final Counter conflictErrors;
+    private final Counter preconditionFailedErrors;
+    private final Counter goneErrors;
+    private final Counter tooManyRequestsErrors;
+    private final Counter serviceUnavailableErrors;
+    private final Counter internalErrors;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.notFoundErrors = errorCounter(meterRegistry, "not_found");
+        this.badRequestErrors = errorCounter(meterRegistry, "bad_request");
+        this.conflictErrors = errorCounter(meterRegistry, "conflict");
+        this.preconditionFailedErrors = errorCounter(meterRegistry, "precondition_failed");
+        this.goneErrors = errorCounter(meterRegistry, "gone");
+        this.tooManyRequestsErrors = errorCounter(meterRegistry, "too_many_requests");
+        this.serviceUnavailableErrors = errorCounter(meterRegistry, "service_unavailable");
+        this.internalErrors = errorCounter(meterRegistry, "internal_error");
+    }
 
     @ExceptionHandler(NoSuchElementException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public CustomErrorMessage handleNotFoundException(NoSuchElementException e) {
+        notFoundErrors.increment();
         return new CustomErrorMessage("Element not found: " + e.getMessage(), LocalDateTime.now());
     }
 
     @ExceptionHandler(BindException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public CustomErrorMessage handleBindException(BindException e) {
+        badRequestErrors.increment();
         return new CustomErrorMessage("Bad request: " + Objects.requireNonNull(e.getFieldError()).getDefaultMessage(), LocalDateTime.now());
     }
 
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public CustomErrorMessage handleWebExchangeBindException(WebExchangeBindException e) {
+        badRequestErrors.increment();
+        return new CustomErrorMessage("Bad request: " + Objects.requireNonNull(e.getFieldError()).getDefaultMessage(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public CustomErrorMessage handleBadRequestException(BadRequestException e) {
+        badRequestErrors.increment();
+        return new CustomErrorMessage("Bad request: " + e.getMessage(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public CustomErrorMessage handleDuplicateKeyException(DuplicateKeyException e) {
+        conflictErrors.increment();
+        return new CustomErrorMessage("Conflict: Duplicate key", LocalDateTime.now());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public CustomErrorMessage handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        conflictErrors.increment();
+        return new CustomErrorMessage("Conflict: " + e.getMessage(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public CustomErrorMessage handlePreconditionFailedException(PreconditionFailedException e) {
+        preconditionFailedErrors.increment();
+        return new CustomErrorMessage("Precondition failed: " + e.getMessage(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(ChangesTokenExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public CustomErrorMessage handleChangesTokenExpiredException(ChangesTokenExpiredException e) {
+        goneErrors.increment();
+        return new CustomErrorMessage("Gone: " + e.getMessage(), LocalDateTime.now());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<CustomErrorMessage> handleTooManyRequestsException(TooManyRequestsException e) {
+        tooManyRequestsErrors.increment();
+        return withRetryAfter(HttpStatus.TOO_MANY_REQUESTS, e.getRetryAfter(), "Too many requests: " + e.getMessage());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<CustomErrorMessage> handleServiceUnavailableException(ServiceUnavailableException e) {
+        serviceUnavailableErrors.increment();
+        return withRetryAfter(HttpStatus.SERVICE_UNAVAILABLE, e.getRetryAfter(), "Service unavailable: " + e.getMessage());
+    }
+
+    @ExceptionHandler(DataAccessResourceFailureException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public CustomErrorMessage handleDataAccessResourceFailureException(DataAccessResourceFailureException e) {
+        serviceUnavailableErrors.increment();
+        return new CustomErrorMessage("Service unavailable: Database is not reachable", LocalDateTime.now());
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public CustomErrorMessage handleException(Exception e) {
+        internalErrors.increment();
         return new CustomErrorMessage("Internal server error: " + e.getMessage(), LocalDateTime.now());
     }
 
+    private static ResponseEntity<CustomErrorMessage> withRetryAfter(HttpStatus status, Duration retryAfter, String message) {
+        // Retry-After is whole seconds, rounded up so clients never come back too early
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(new CustomErrorMessage(message, LocalDateTime.now()));
+    }
+
+    private static Counter errorCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("todos.errors")
+                .description("Requests answered with an error by the global exception handler")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
 }
@@ -0,0 +1,8 @@
+package com.github.moinmarcell.backend.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
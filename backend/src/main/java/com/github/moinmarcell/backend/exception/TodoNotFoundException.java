@@ -0,0 +1,19 @@
+package com.github.moinmarcell.backend.exception;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Thrown for unknown ids, which stale clients and scanners send all the time. It carries no stack
+ * trace, the id says everything the 404 needs, and filling one in costs more than the lookup itself.
+ */
+public class TodoNotFoundException extends NoSuchElementException {
+
+    public TodoNotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.moinmarcell.backend.todo;
+
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/boards/{boardId}/todos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BoardTodoController {
+
+    private final BoardTodoService boardTodoService;
+
+    public BoardTodoController(BoardTodoService boardTodoService) {
+        this.boardTodoService = boardTodoService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Todo>> getTodos(@PathVariable String boardId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit) {
+        TodoPage page = boardTodoService.getTodos(boardId, cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(TodoController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.todos());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Todo> getTodo(@PathVariable String boardId, @PathVariable String id) {
+        Todo todo = boardTodoService.getTodo(boardId, id);
+        return ResponseEntity.ok().eTag(TodoETags.forTodo(todo)).body(todo);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Todo addTodo(@PathVariable String boardId, @RequestBody @Valid TodoDto todoDto) {
+        return boardTodoService.addTodo(boardId, todoDto);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Todo> updateTodo(@PathVariable String boardId,
+                                           @PathVariable String id,
+                                           @RequestBody @Valid TodoDto todoDto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Todo updatedTodo = ifMatch == null
+                ? boardTodoService.updateTodo(boardId, id, todoDto)
+                : TodoController.withPrecondition(() -> boardTodoService.updateTodo(boardId, id,
+                new TodoDto(todoDto.title(), todoDto.description(), TodoETags.expectedVersion(ifMatch))));
+        return ResponseEntity.ok().eTag(TodoETags.forTodo(updatedTodo)).body(updatedTodo);
+    }
+
+    @PutMapping("/{id}/move")
+    public ResponseEntity<Todo> moveTodo(@PathVariable String boardId,
+                                         @PathVariable String id,
+                                         @RequestBody @Valid TodoMoveDto todoMoveDto,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Todo movedTodo = ifMatch == null
+                ? boardTodoService.moveTodo(boardId, id, todoMoveDto)
+                : TodoController.withPrecondition(() -> boardTodoService.moveTodo(boardId, id, new TodoMoveDto(todoMoveDto.status(),
+                todoMoveDto.previousId(), todoMoveDto.nextId(), TodoETags.expectedVersion(ifMatch))));
+        return ResponseEntity.ok().eTag(TodoETags.forTodo(movedTodo)).body(movedTodo);
+    }
+
+    @DeleteMapping("/{id}")
+    public String deleteTodo(@PathVariable String boardId,
+                             @PathVariable String id,
+                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return boardTodoService.deleteTodo(boardId, id, null);
+        }
+        return TodoController.withPrecondition(() -> boardTodoService.deleteTodo(boardId, id, TodoETags.expectedVersion(ifMatch)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.TodoNotFoundException;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Todos of one board, read and written in the partition the {@link TodoPartitionRouter} picks. Every
+ * query is bound to the board, so it is served by the indexes that lead with {@code boardId}.
+ * <p>
+ * Writes to the default board keep the modification sequence, tombstones, stats, cache and id filter
+ * up to date, since the board-less endpoints work on that board. No other board is part of the change
+ * feed or the stats, so their writes take no modification number either.
+ */
+@Service
+public class BoardTodoService {
+
+    private final TodoPartitionRouter todoPartitionRouter;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoChangesService todoChangesService;
+    private final TodoStatsService todoStatsService;
+    private final TodoIdFilter todoIdFilter;
+
+    public BoardTodoService(TodoPartitionRouter todoPartitionRouter, TodoCache todoCache, TodoSequence todoSequence,
+                            TodoChangesService todoChangesService, TodoStatsService todoStatsService,
+                            @Nullable TodoIdFilter todoIdFilter) {
+        this.todoPartitionRouter = todoPartitionRouter;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoChangesService = todoChangesService;
+        this.todoStatsService = todoStatsService;
+        this.todoIdFilter = todoIdFilter;
+    }
+
+    public TodoPage getTodos(String boardId, String cursor, Integer limit) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        int pageSize = TodoService.pageSize(limit);
+        Criteria criteria = partition.boardCriteria();
+        if (cursor != null) {
+            criteria = criteria.and("id").gt(TodoCursor.decode(cursor));
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).limit(pageSize + 1);
+        query.fields().exclude("titleTerms", "descriptionTerms");
+        List<Todo> todos = partition.mongoTemplate().find(query, Todo.class, partition.collection());
+        if (todos.size() <= pageSize) {
+            return new TodoPage(todos, null);
+        }
+        List<Todo> page = todos.subList(0, pageSize);
+        return new TodoPage(page, TodoCursor.encode(page.getLast().getId()));
+    }
+
+    public Todo getTodo(String boardId, String id) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        Todo todo = partition.mongoTemplate().findOne(onBoard(partition, id, null), Todo.class, partition.collection());
+        if (todo == null) {
+            throw notFound(boardId, id);
+        }
+        return todo;
+    }
+
+    public Todo addTodo(String boardId, TodoDto todoDto) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        Todo todo = new Todo(todoDto);
+        todo.setId(new ObjectId().toHexString());
+        todo.setBoardId(boardId);
+        if (!partition.defaultBoard()) {
+            return partition.mongoTemplate().insert(todo, partition.collection());
+        }
+        if (todoIdFilter != null) {
+            todoIdFilter.add(todo.getId());
+        }
+        Todo savedTodo = todoSequence.write(1, modSeq -> {
+            todo.setModSeq(modSeq);
+            return partition.mongoTemplate().insert(todo, partition.collection());
+        });
+        todoStatsService.created(savedTodo);
+        todoCache.put(savedTodo);
+        return savedTodo;
+    }
+
+    public Todo updateTodo(String boardId, String id, TodoDto todoDto) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        Update update = new Update()
+                .set("title", todoDto.title())
+                .set("description", todoDto.description())
+                .set("titleTerms", TodoSearchTerms.of(todoDto.title()))
+                .set("descriptionTerms", TodoSearchTerms.of(todoDto.description()))
+                .inc("version", 1);
+        Todo updatedTodo = write(partition, modSeq -> partition.mongoTemplate().findAndModify(
+                onBoard(partition, id, todoDto.version()), withModSeq(update, modSeq),
+                FindAndModifyOptions.options().returnNew(true), Todo.class, partition.collection()));
+        if (updatedTodo == null) {
+            throw notFoundOrConflict(partition, id, todoDto.version());
+        }
+        if (partition.defaultBoard()) {
+            todoCache.put(updatedTodo);
+        }
+        return updatedTodo;
+    }
+
+    public Todo moveTodo(String boardId, String id, TodoMoveDto todoMoveDto) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        List<String> neighborIds = TodoService.neighborIds(id, todoMoveDto);
+        List<Todo> neighbors = List.of();
+        if (!neighborIds.isEmpty()) {
+            // a neighbor on another board is not found, like one that was deleted
+            Query neighborQuery = TodoService.neighborQuery(neighborIds).addCriteria(partition.boardCriteria());
+            neighbors = partition.mongoTemplate().find(neighborQuery, Todo.class, partition.collection());
+        }
+        String rank = TodoService.rankBetween(id, todoMoveDto, neighbors);
+        LocalDate today = LocalDate.now();
+        Update update = TodoService.moveUpdate(todoMoveDto, rank, today).inc("version", 1);
+        Todo movedTodo = write(partition, modSeq -> {
+            // the todo before the update, the stats need the column it was moved out of
+            Todo previousTodo = partition.mongoTemplate().findAndModify(onBoard(partition, id, todoMoveDto.version()),
+                    withModSeq(update, modSeq), FindAndModifyOptions.options().returnNew(false), Todo.class, partition.collection());
+            if (previousTodo == null) {
+                return null;
+            }
+            if (partition.defaultBoard()) {
+                todoStatsService.moved(previousTodo.getStatus(), todoMoveDto.status());
+            }
+            return TodoService.moved(previousTodo, todoMoveDto, rank, today, modSeq);
+        });
+        if (movedTodo == null) {
+            throw notFoundOrConflict(partition, id, todoMoveDto.version());
+        }
+        if (partition.defaultBoard()) {
+            todoCache.put(movedTodo);
+        }
+        return movedTodo;
+    }
+
+    public String deleteTodo(String boardId, String id, Long expectedVersion) {
+        TodoPartition partition = todoPartitionRouter.route(boardId);
+        Query query = onBoard(partition, id, expectedVersion);
+        Todo deletedTodo = write(partition, modSeq -> {
+            Todo removedTodo = partition.mongoTemplate().findAndRemove(query, Todo.class, partition.collection());
+            if (removedTodo != null && modSeq != null) {
+                todoChangesService.recordDeletions(List.of(new TodoTombstone(id, modSeq, Instant.now())));
+            }
+            return removedTodo;
+        });
+        if (deletedTodo == null) {
+            throw notFoundOrConflict(partition, id, expectedVersion);
+        }
+        if (partition.defaultBoard()) {
+            todoStatsService.deleted(deletedTodo);
+            if (todoIdFilter != null) {
+                todoIdFilter.remove(id);
+            }
+            todoCache.evict(id);
+        }
+        return "Deleted todo with id " + id;
+    }
+
+    // only writes to the default board take a number, the change feed does not read other boards
+    private <T> T write(TodoPartition partition, Function<Long, T> write) {
+        return partition.defaultBoard() ? todoSequence.write(1, write::apply) : write.apply(null);
+    }
+
+    private RuntimeException notFoundOrConflict(TodoPartition partition, String id, Long expectedVersion) {
+        if (expectedVersion != null && partition.mongoTemplate().exists(onBoard(partition, id, null), Todo.class, partition.collection())) {
+            return new OptimisticLockingFailureException("Todo with id " + id + " is no longer at version " + expectedVersion);
+        }
+        return notFound(partition.boardId(), id);
+    }
+
+    private static TodoNotFoundException notFound(String boardId, String id) {
+        return new TodoNotFoundException("No todo with id " + id + " on board " + boardId);
+    }
+
+    private static Update withModSeq(Update update, Long modSeq) {
+        return modSeq == null ? update : update.set("modSeq", modSeq);
+    }
+
+    private static Query onBoard(TodoPartition partition, String id, Long expectedVersion) {
+        Query query = Query.query(Criteria.where("id").is(id)).addCriteria(partition.boardCriteria());
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+}
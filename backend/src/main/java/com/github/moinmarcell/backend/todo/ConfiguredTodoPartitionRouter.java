@@ -0,0 +1,92 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.mongodb.client.MongoClient;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Routes the boards listed in {@link TodoBoardProperties} to their own collection, in their own
+ * database if one is set, and every other board to the shared collection. The dedicated collections
+ * get the same indexes as the shared one at startup, so routing a request never waits for an index build.
+ * <p>
+ * Moving an existing board only changes where its todos are read and written; its todos have to be
+ * copied into the dedicated collection before the change is deployed.
+ */
+public class ConfiguredTodoPartitionRouter implements TodoPartitionRouter {
+    // board ids end up in collection names and URLs
+    private static final Pattern BOARD_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoClient mongoClient;
+    private final Map<String, TodoPartition> dedicatedPartitions;
+    private final Map<String, MongoTemplate> databaseTemplates = new HashMap<>();
+
+    public ConfiguredTodoPartitionRouter(MongoTemplate mongoTemplate, MongoClient mongoClient, TodoBoardProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoClient = mongoClient;
+        Map<String, TodoBoardProperties.Dedicated> dedicated = properties.dedicated();
+        String sharedCollection = mongoTemplate.getCollectionName(Todo.class);
+        dedicated.forEach((boardId, partition) -> {
+            if (!BOARD_ID.matcher(boardId).matches()) {
+                throw new IllegalStateException("Invalid board id '" + boardId + "' in todos.boards.dedicated");
+            }
+            if (partition.database() == null && sharedCollection.equals(partition.collection())) {
+                throw new IllegalStateException("Board '" + boardId + "' is routed to the shared collection " + sharedCollection);
+            }
+        });
+        Map<String, TodoPartition> partitions = new HashMap<>();
+        dedicated.forEach((boardId, partition) -> partitions.put(boardId, dedicatedPartition(boardId, partition)));
+        this.dedicatedPartitions = Map.copyOf(partitions);
+    }
+
+    @Override
+    public TodoPartition route(String boardId) {
+        if (boardId == null || !BOARD_ID.matcher(boardId).matches()) {
+            throw new BadRequestException("Board id must be 1 to 64 letters, digits, '-' or '_'");
+        }
+        TodoPartition partition = dedicatedPartitions.get(boardId);
+        return partition == null ? sharedPartition(boardId) : partition;
+    }
+
+    @Override
+    public List<TodoPartition> partitions() {
+        List<TodoPartition> partitions = new ArrayList<>();
+        partitions.add(sharedPartition(Todo.DEFAULT_BOARD));
+        dedicatedPartitions.keySet().stream().sorted().map(dedicatedPartitions::get).forEach(partitions::add);
+        return partitions;
+    }
+
+    private TodoPartition sharedPartition(String boardId) {
+        return new TodoPartition(boardId, mongoTemplate, mongoTemplate.getCollectionName(Todo.class), true);
+    }
+
+    private TodoPartition dedicatedPartition(String boardId, TodoBoardProperties.Dedicated partition) {
+        MongoTemplate template = partition.database() == null
+                ? mongoTemplate
+                : databaseTemplates.computeIfAbsent(partition.database(), database -> new MongoTemplate(
+                new SimpleMongoClientDatabaseFactory(mongoClient, database), mongoTemplate.getConverter()));
+        String collection = partition.collection() == null ? "todos_" + boardId : partition.collection();
+        ensureIndexes(template, collection);
+        return new TodoPartition(boardId, template, collection, false);
+    }
+
+    // auto index creation only covers the collection the entity is mapped to
+    private void ensureIndexes(MongoTemplate template, String collection) {
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        if (!mappingContext.isAutoIndexCreation()) {
+            return;
+        }
+        IndexOperations indexOperations = template.indexOps(collection);
+        IndexResolver.create(mappingContext).resolveIndexFor(Todo.class).forEach(indexOperations::ensureIndex);
+    }
+}
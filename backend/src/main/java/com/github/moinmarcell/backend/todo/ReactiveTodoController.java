@@ -0,0 +1,93 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.PreconditionFailedException;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The CRUD, list and move endpoints of {@link TodoController} on WebFlux, enabled with the {@code reactive} profile.
+ * Export, import, batch, search and the change feed are only served by the servlet stack.
+ */
+@RestController
+@RequestMapping("/api/todos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTodoController {
+
+    private final ReactiveTodoService todoService;
+
+    public ReactiveTodoController(ReactiveTodoService todoService) {
+        this.todoService = todoService;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<Todo>>> getTodos(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     ServerWebExchange exchange) {
+        return todoService.getTodosSnapshot()
+                .filter(snapshot -> exchange.checkNotModified(TodoETags.forTodos(snapshot)))
+                .hasElement()
+                .flatMap(notModified -> notModified ? Mono.empty() : todoService.getTodos(cursor, limit).map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(TodoController.NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.todos());
+                }));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Todo> getTodo(@PathVariable String id, ServerWebExchange exchange) {
+        return todoService.getTodo(id)
+                .filter(todo -> !exchange.checkNotModified(TodoETags.forTodo(todo)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Todo> addTodo(@RequestBody @Valid TodoDto todoDto) {
+        return todoService.addTodo(todoDto);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Todo>> updateTodo(@PathVariable String id,
+                                                 @RequestBody @Valid TodoDto todoDto,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Mono<Todo> updatedTodo = ifMatch == null
+                ? todoService.updateTodo(id, todoDto)
+                : withPrecondition(todoService.updateTodo(id,
+                new TodoDto(todoDto.title(), todoDto.description(), TodoETags.expectedVersion(ifMatch))));
+        return updatedTodo.map(todo -> ResponseEntity.ok().eTag(TodoETags.forTodo(todo)).body(todo));
+    }
+
+    @PutMapping("/{id}/move")
+    public Mono<ResponseEntity<Todo>> moveTodo(@PathVariable String id,
+                                               @RequestBody @Valid TodoMoveDto todoMoveDto,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Mono<Todo> movedTodo = ifMatch == null
+                ? todoService.moveTodo(id, todoMoveDto)
+                : withPrecondition(todoService.moveTodo(id, new TodoMoveDto(todoMoveDto.status(),
+                todoMoveDto.previousId(), todoMoveDto.nextId(), TodoETags.expectedVersion(ifMatch))));
+        return movedTodo.map(todo -> ResponseEntity.ok().eTag(TodoETags.forTodo(todo)).body(todo));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteTodo(@PathVariable String id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return todoService.deleteTodo(id, null);
+        }
+        return withPrecondition(todoService.deleteTodo(id, TodoETags.expectedVersion(ifMatch)));
+    }
+
+    private static <T> Mono<T> withPrecondition(Mono<T> conditionalWrite) {
+        return conditionalWrite.onErrorMap(OptimisticLockingFailureException.class,
+                e -> new PreconditionFailedException(e.getMessage()));
+    }
+}
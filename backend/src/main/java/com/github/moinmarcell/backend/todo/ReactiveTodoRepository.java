@@ -0,0 +1,8 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveTodoRepository extends ReactiveMongoRepository<Todo, String> {
+}
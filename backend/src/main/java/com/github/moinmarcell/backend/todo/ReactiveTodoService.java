@@ -0,0 +1,187 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.TodoNotFoundException;
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link TodoService} for the {@code reactive} profile. Writes keep the
+ * modification sequence, tombstones and cache up to date, so both stacks can run on the same data.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTodoService {
+
+    private final ReactiveTodoRepository todoRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoStatsService todoStatsService;
+    private final TodoChangesService todoChangesService;
+
+    public ReactiveTodoService(ReactiveTodoRepository todoRepository, ReactiveMongoTemplate mongoTemplate, TodoCache todoCache,
+                               TodoSequence todoSequence, TodoStatsService todoStatsService,
+                               TodoChangesService todoChangesService) {
+        this.todoRepository = todoRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoStatsService = todoStatsService;
+        this.todoChangesService = todoChangesService;
+    }
+
+    /**
+     * Finds the end of the page with an {@code _id}-only query first, so the next cursor is known
+     * before the first todo is streamed and the page itself is never held in memory.
+     */
+    public Mono<TodoFluxPage> getTodos(String cursor, Integer limit) {
+        int pageSize = TodoService.pageSize(limit);
+        String afterId = cursor == null ? null : TodoCursor.decode(cursor);
+        Query pageEnd = idRange(afterId, null).with(Sort.by("id")).skip(pageSize - 1).limit(2);
+        pageEnd.fields().include("id");
+        return mongoTemplate.find(pageEnd, Todo.class)
+                .map(Todo::getId)
+                .collectList()
+                .map(ids -> {
+                    String lastId = ids.size() == 2 ? ids.getFirst() : null;
+                    Query page = idRange(afterId, lastId).with(Sort.by("id")).limit(pageSize);
+                    page.fields().exclude("titleTerms", "descriptionTerms");
+                    return new TodoFluxPage(mongoTemplate.find(page, Todo.class),
+                            lastId == null ? null : TodoCursor.encode(lastId));
+                });
+    }
+
+    /**
+     * The snapshot of {@link TodoChangesService#snapshot()}, which the writes of this service change as well.
+     */
+    public Mono<String> getTodosSnapshot() {
+        // reads the checkpoint through the blocking template at most once per refresh interval
+        return Mono.fromCallable(todoChangesService::snapshot).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Todo> getTodo(String id) {
+        return todoRepository.findById(id)
+                .filter(Todo::onDefaultBoard)
+                .switchIfEmpty(Mono.error(() -> new TodoNotFoundException("No todo with id " + id)));
+    }
+
+    public Mono<Todo> addTodo(TodoDto todoDto) {
+        Todo todo = new Todo(todoDto);
+        todo.setId(new ObjectId().toHexString());
+        return nextModSeq()
+                .flatMap(modSeq -> {
+                    todo.setModSeq(modSeq);
+                    return todoRepository.insert(todo);
+                })
+                .doOnNext(todoStatsService::created)
+                .doOnNext(todoCache::put);
+    }
+
+    public Mono<Todo> updateTodo(String id, TodoDto todoDto) {
+        return modifyTodo(id, todoDto.version(), new Update()
+                .set("title", todoDto.title())
+                .set("description", todoDto.description())
+                .set("titleTerms", TodoSearchTerms.of(todoDto.title()))
+                .set("descriptionTerms", TodoSearchTerms.of(todoDto.description())));
+    }
+
+    public Mono<Todo> moveTodo(String id, TodoMoveDto todoMoveDto) {
+        return Mono.fromCallable(() -> TodoService.neighborIds(id, todoMoveDto))
+                .flatMap(neighborIds -> neighborIds.isEmpty()
+                        ? Mono.just(List.<Todo>of())
+                        : mongoTemplate.find(TodoService.neighborQuery(neighborIds)
+                        .addCriteria(TodoPartition.defaultBoardCriteria()), Todo.class).collectList())
+                .map(neighbors -> TodoService.rankBetween(id, todoMoveDto, neighbors))
+                .flatMap(rank -> nextModSeq().flatMap(modSeq -> {
+                    LocalDate today = LocalDate.now();
+                    return mongoTemplate.findAndModify(versioned(id, todoMoveDto.version()),
+                                    TodoService.moveUpdate(todoMoveDto, rank, today)
+                                            .set("modSeq", modSeq)
+                                            .inc("version", 1),
+                                    FindAndModifyOptions.options().returnNew(false), Todo.class)
+                            // the todo before the update, the stats need the column it was moved out of
+                            .map(previousTodo -> {
+                                todoStatsService.moved(previousTodo.getStatus(), todoMoveDto.status());
+                                return TodoService.moved(previousTodo, todoMoveDto, rank, today, modSeq);
+                            });
+                }))
+                .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(id, todoMoveDto.version())))
+                .doOnNext(todoCache::put);
+    }
+
+    public Mono<String> deleteTodo(String id, Long expectedVersion) {
+        Query query = versioned(id, expectedVersion);
+        return nextModSeq()
+                .flatMap(modSeq -> mongoTemplate.findAndRemove(query, Todo.class)
+                        .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(id, expectedVersion)))
+                        .doOnNext(todoStatsService::deleted)
+                        .flatMap(deletedTodo -> mongoTemplate.upsert(Query.query(Criteria.where("id").is(id)), new Update()
+                                .set("modSeq", modSeq)
+                                .set("deletedAt", Instant.now()), TodoTombstone.class)))
+                .doOnSuccess(ignored -> todoCache.evict(id))
+                .thenReturn("Deleted todo with id " + id);
+    }
+
+    private Mono<Todo> modifyTodo(String id, Long expectedVersion, Update update) {
+        Query query = versioned(id, expectedVersion);
+        return nextModSeq()
+                .flatMap(modSeq -> mongoTemplate.findAndModify(query, update.set("modSeq", modSeq).inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true), Todo.class))
+                .switchIfEmpty(Mono.defer(() -> notFoundOrConflict(id, expectedVersion)))
+                .doOnNext(todoCache::put);
+    }
+
+    private <T> Mono<T> notFoundOrConflict(String id, Long expectedVersion) {
+        Mono<Boolean> exists = expectedVersion == null ? Mono.just(false) : mongoTemplate.exists(byId(id), Todo.class);
+        return exists.flatMap(found -> Mono.error(found
+                ? new OptimisticLockingFailureException("Todo with id " + id + " is no longer at version " + expectedVersion)
+                : new TodoNotFoundException("No todo with id " + id)));
+    }
+
+    // blocks on Mongo only for the first number of this instance
+    private Mono<Long> nextModSeq() {
+        return Mono.fromCallable(() -> todoSequence.allocate(1));
+    }
+
+    private static Query idRange(String afterId, String lastId) {
+        Query query = Query.query(TodoPartition.defaultBoardCriteria());
+        if (afterId == null && lastId == null) {
+            return query;
+        }
+        Criteria id = Criteria.where("id");
+        if (afterId != null) {
+            id = id.gt(afterId);
+        }
+        if (lastId != null) {
+            id = id.lte(lastId);
+        }
+        return query.addCriteria(id);
+    }
+
+    // the board-less endpoints only see the default board
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id)).addCriteria(TodoPartition.defaultBoardCriteria());
+    }
+
+    private static Query versioned(String id, Long expectedVersion) {
+        Query query = byId(id);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+}
@@ -1,24 +1,60 @@
 package com.github.moinmarcell.backend.todo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
 
-@Document(collection = "todos")
+@Document(collection = "todos", language = "none")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_rank", def = "{'status': 1, 'rank': 1}"),
+        // board-scoped queries lead with the board, so one board never scans the todos of another
+        @CompoundIndex(name = "board_id", def = "{'boardId': 1, '_id': 1}"),
+        @CompoundIndex(name = "board_status_rank", def = "{'boardId': 1, 'status': 1, 'rank': 1}"),
+        @CompoundIndex(name = "board_mod_seq", def = "{'boardId': 1, 'modSeq': -1}")
+})
 public class Todo {
+    public static final String DEFAULT_BOARD = "default";
+
     @MongoId
     private String id;
+    private String boardId;
     private String title;
     private String description;
+    @Indexed
     private LocalDate createdAt;
+    private TodoStatus status;
+    // the day it was moved into the done column, only set while it is there
+    @Indexed(sparse = true)
+    private LocalDate doneAt;
+    private String rank;
+    @Version
+    private Long version;
+    @Indexed
+    private Long modSeq;
+    @JsonIgnore
+    @TextIndexed(weight = 3)
+    private List<String> titleTerms = List.of();
+    @JsonIgnore
+    @TextIndexed
+    private List<String> descriptionTerms = List.of();
 
     public Todo(String title, String description) {
-        this.id = null; // mongo will generate a unique id
-        this.title = title;
-        this.description = description;
+        this.id = null; // the service assigns an ObjectId hex string before insert
+        this.boardId = DEFAULT_BOARD;
+        setTitle(title);
+        setDescription(description);
         this.createdAt = LocalDate.now();
+        this.status = TodoStatus.TODO;
+        this.rank = TodoRank.next();
     }
 
     public Todo() {
@@ -33,6 +69,10 @@ public class Todo {
         return id;
     }
 
+    public String getBoardId() {
+        return boardId;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -45,12 +85,67 @@ public class Todo {
         return createdAt;
     }
 
+    public TodoStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDoneAt() {
+        return doneAt;
+    }
+
+    public String getRank() {
+        return rank;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getModSeq() {
+        return modSeq;
+    }
+
+    // todos stored before boards existed have no board
+    boolean onDefaultBoard() {
+        return boardId == null || DEFAULT_BOARD.equals(boardId);
+    }
+
+    public void setBoardId(String boardId) {
+        this.boardId = boardId;
+    }
+
     public void setTitle(String title) {
         this.title = title;
+        this.titleTerms = TodoSearchTerms.of(title);
     }
 
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionTerms = TodoSearchTerms.of(description);
+    }
+
+    public void setCreatedAt(LocalDate createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public void setStatus(TodoStatus status) {
+        this.status = status;
+    }
+
+    public void setDoneAt(LocalDate doneAt) {
+        this.doneAt = doneAt;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public void setModSeq(Long modSeq) {
+        this.modSeq = modSeq;
     }
 
     // setter for id, used by mongo
@@ -58,26 +153,50 @@ public class Todo {
         this.id = id;
     }
 
+    // the search terms are immutable lists and shared, so copying does not tokenize again
+    Todo copy() {
+        Todo copy = new Todo();
+        copy.id = id;
+        copy.boardId = boardId;
+        copy.title = title;
+        copy.description = description;
+        copy.createdAt = createdAt;
+        copy.status = status;
+        copy.doneAt = doneAt;
+        copy.rank = rank;
+        copy.version = version;
+        copy.modSeq = modSeq;
+        copy.titleTerms = titleTerms;
+        copy.descriptionTerms = descriptionTerms;
+        return copy;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Todo todo = (Todo) o;
-        return Objects.equals(id, todo.id) && Objects.equals(title, todo.title) && Objects.equals(description, todo.description) && Objects.equals(createdAt, todo.createdAt);
+        return Objects.equals(id, todo.id) && Objects.equals(boardId, todo.boardId) && Objects.equals(title, todo.title) && Objects.equals(description, todo.description) && Objects.equals(createdAt, todo.createdAt) && status == todo.status && Objects.equals(doneAt, todo.doneAt) && Objects.equals(rank, todo.rank) && Objects.equals(version, todo.version) && Objects.equals(modSeq, todo.modSeq);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, description, createdAt);
+        return Objects.hash(id, boardId, title, description, createdAt, status, doneAt, rank, version, modSeq);
     }
 
     @Override
     public String toString() {
         return "Todo{" +
                 "id='" + id + '\'' +
+                ", boardId='" + boardId + '\'' +
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
                 ", createdAt=" + createdAt +
+                ", status=" + status +
+                ", doneAt=" + doneAt +
+                ", rank='" + rank + '\'' +
+                ", version=" + version +
+                ", modSeq=" + modSeq +
                 '}';
     }
 }
@@ -0,0 +1,186 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.TodoNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves todos older than {@code todos.archive.max-age}, and todos done for longer than
+ * {@code todos.archive.done-after}, from the live collection into {@value #ARCHIVE_COLLECTION}.
+ * The sweep runs in batches with a pause in between, so it never competes with requests for long.
+ * Archives the todos of every board in the shared collection; for the board-less endpoints and the
+ * change feed an archived todo of the default board is deleted.
+ * <p>
+ * The scheduled sweep is off by default, since it removes todos from the live collection; enable it with
+ * {@code todos.archive.enabled}. The archive can be read either way.
+ */
+@Service
+public class TodoArchiveService {
+    static final String ARCHIVE_COLLECTION = "todos_archive";
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiveService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoChangesService todoChangesService;
+    private final TodoStatsService todoStatsService;
+    private final Period maxAge;
+    private final Period doneAfter;
+    private final int batchSize;
+    private final Duration batchPause;
+    private final int maxPerRun;
+    private final boolean enabled;
+
+    public TodoArchiveService(MongoTemplate mongoTemplate, TodoCache todoCache, TodoSequence todoSequence,
+                              TodoChangesService todoChangesService, TodoStatsService todoStatsService,
+                              @Value("${todos.archive.max-age:P365D}") Period maxAge,
+                              @Value("${todos.archive.done-after:P30D}") Period doneAfter,
+                              @Value("${todos.archive.batch-size:500}") int batchSize,
+                              @Value("${todos.archive.batch-pause:200ms}") Duration batchPause,
+                              @Value("${todos.archive.max-per-run:50000}") int maxPerRun,
+                              @Value("${todos.archive.enabled:false}") boolean enabled) {
+        // a batch takes one modification number per todo, all in the same millisecond
+        if (batchSize < 1 || batchSize > TodoSequence.MAX_COUNT) {
+            throw new IllegalArgumentException("todos.archive.batch-size must be between 1 and " + TodoSequence.MAX_COUNT);
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoChangesService = todoChangesService;
+        this.todoStatsService = todoStatsService;
+        this.maxAge = maxAge;
+        this.doneAfter = doneAfter;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+        this.maxPerRun = maxPerRun;
+        this.enabled = enabled;
+    }
+
+    public TodoPage getArchivedTodos(String cursor, Integer limit) {
+        int pageSize = TodoService.pageSize(limit);
+        Query query = Query.query(TodoPartition.defaultBoardCriteria());
+        if (cursor != null) {
+            query.addCriteria(Criteria.where("id").gt(TodoCursor.decode(cursor)));
+        }
+        query.with(Sort.by("id")).limit(pageSize + 1);
+        List<Todo> todos = mongoTemplate.find(query, Todo.class, ARCHIVE_COLLECTION);
+        if (todos.size() <= pageSize) {
+            return new TodoPage(todos, null);
+        }
+        List<Todo> page = todos.subList(0, pageSize);
+        return new TodoPage(page, TodoCursor.encode(page.getLast().getId()));
+    }
+
+    public Todo getArchivedTodo(String id) {
+        Todo todo = mongoTemplate.findOne(byId(id).addCriteria(TodoPartition.defaultBoardCriteria()), Todo.class, ARCHIVE_COLLECTION);
+        if (todo == null) {
+            throw new TodoNotFoundException("No archived todo with id " + id);
+        }
+        return todo;
+    }
+
+    @Scheduled(initialDelayString = "${todos.archive.interval:PT1H}",
+            fixedDelayString = "${todos.archive.interval:PT1H}")
+    public void archiveTodos() {
+        if (!enabled) {
+            return;
+        }
+        int archived = archive(LocalDate.now());
+        if (archived > 0) {
+            log.info("Archived {} todos", archived);
+        }
+    }
+
+    int archive(LocalDate today) {
+        LocalDate doneBefore = today.minus(doneAfter);
+        // every clause is served by the createdAt or the doneAt index
+        Query candidates = Query.query(new Criteria().orOperator(
+                        Criteria.where("createdAt").lt(today.minus(maxAge)),
+                        Criteria.where("doneAt").lt(doneBefore),
+                        // done before the day it was moved there was recorded, so as old as it is
+                        Criteria.where("createdAt").lt(doneBefore).and("status").is(TodoStatus.DONE).and("doneAt").exists(false)))
+                .limit(batchSize);
+        int archived = 0;
+        int attempted = 0;
+        while (attempted < maxPerRun) {
+            List<Todo> batch = mongoTemplate.find(candidates, Todo.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            attempted += batch.size();
+            archived += archiveBatch(batch);
+            if (batch.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private int archiveBatch(List<Todo> batch) {
+        // copied first and removed second, so a crash in between leaves a duplicate instead of a lost todo
+        BulkOperations copies = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class, ARCHIVE_COLLECTION);
+        for (Todo todo : batch) {
+            copies.replaceOne(byId(todo.getId()), todo, FindAndReplaceOptions.options().upsert());
+        }
+        copies.execute();
+
+        List<String> archivedIds = todoSequence.write(batch.size(), firstModSeq -> {
+            List<String> removedIds = new ArrayList<>();
+            List<String> keptIds = new ArrayList<>();
+            List<TodoTombstone> tombstones = new ArrayList<>();
+            Instant deletedAt = Instant.now();
+            for (int i = 0; i < batch.size(); i++) {
+                Todo todo = batch.get(i);
+                // a todo written since it was copied stays live, one deleted since then was not archived by this sweep
+                Query unchanged = Query.query(Criteria.where("id").is(todo.getId()).and("version").is(todo.getVersion()));
+                if (mongoTemplate.remove(unchanged, Todo.class).getDeletedCount() == 0) {
+                    keptIds.add(todo.getId());
+                    continue;
+                }
+                removedIds.add(todo.getId());
+                if (todo.onDefaultBoard()) {
+                    tombstones.add(new TodoTombstone(todo.getId(), firstModSeq + i, deletedAt));
+                }
+                // left in the id filter, a concurrent delete may have removed it from there already
+                todoStatsService.deleted(todo);
+            }
+            todoChangesService.recordDeletions(tombstones);
+            if (!keptIds.isEmpty()) {
+                mongoTemplate.remove(Query.query(Criteria.where("id").in(keptIds)), ARCHIVE_COLLECTION);
+            }
+            return removedIds;
+        });
+        todoCache.evictAll(archivedIds);
+        return archivedIds.size();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id));
+    }
+}
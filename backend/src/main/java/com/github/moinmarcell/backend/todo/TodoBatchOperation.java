@@ -0,0 +1,13 @@
+package com.github.moinmarcell.backend.todo;
+
+public record TodoBatchOperation(
+        Type type,
+        String id,
+        TodoDto todo
+) {
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
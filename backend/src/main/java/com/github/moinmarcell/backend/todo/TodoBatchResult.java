@@ -0,0 +1,9 @@
+package com.github.moinmarcell.backend.todo;
+
+public record TodoBatchResult(
+        int index,
+        String id,
+        int status,
+        String error
+) {
+}
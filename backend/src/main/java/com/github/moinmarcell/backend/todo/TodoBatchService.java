@@ -0,0 +1,277 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Runs a mixed list of create, update and delete operations as a single unordered bulk write.
+ * Every operation gets its own result, so one invalid or missing todo does not fail the whole batch.
+ */
+@Service
+public class TodoBatchService {
+    public static final int MAX_BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoChangesService todoChangesService;
+    private final TodoStatsService todoStatsService;
+    private final TodoIdFilter todoIdFilter;
+
+    public TodoBatchService(MongoTemplate mongoTemplate, Validator validator, TodoCache todoCache,
+                            TodoSequence todoSequence, TodoChangesService todoChangesService,
+                            TodoStatsService todoStatsService, @Nullable TodoIdFilter todoIdFilter) {
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoChangesService = todoChangesService;
+        this.todoStatsService = todoStatsService;
+        this.todoIdFilter = todoIdFilter;
+    }
+
+    public List<TodoBatchResult> executeBatch(List<TodoBatchOperation> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must not contain more than " + MAX_BATCH_SIZE + " operations");
+        }
+        if (operations.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Todo> deletableTodos = findDeletableTodos(operations);
+        // one number per operation, so every written todo gets its own position in the change feed
+        return todoSequence.write(operations.size(), firstModSeq -> write(operations, deletableTodos, firstModSeq));
+    }
+
+    private List<TodoBatchResult> write(List<TodoBatchOperation> operations, Map<String, Todo> deletableTodos, long firstModSeq) {
+        TodoBatchResult[] results = new TodoBatchResult[operations.size()];
+        Todo[] createdTodos = new Todo[operations.size()];
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class);
+        // position of each queued bulk write in the original operation list
+        List<Integer> bulkIndexes = new ArrayList<>();
+        Set<String> queuedDeletes = new HashSet<>();
+
+        for (int index = 0; index < operations.size(); index++) {
+            TodoBatchOperation operation = operations.get(index);
+            String error = validate(operation);
+            if (error != null) {
+                results[index] = failure(index, operation.id(), HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+            switch (operation.type()) {
+                case CREATE -> {
+                    Todo todo = new Todo(operation.todo());
+                    todo.setId(new ObjectId().toHexString());
+                    todo.setModSeq(firstModSeq + index);
+                    if (todoIdFilter != null) {
+                        todoIdFilter.add(todo.getId());
+                    }
+                    bulkOperations.insert(todo);
+                    createdTodos[index] = todo;
+                    results[index] = success(index, todo.getId(), HttpStatus.CREATED);
+                }
+                case UPDATE -> {
+                    bulkOperations.updateOne(versioned(operation.id(), operation.todo().version()), new Update()
+                            .set("title", operation.todo().title())
+                            .set("description", operation.todo().description())
+                            .set("titleTerms", TodoSearchTerms.of(operation.todo().title()))
+                            .set("descriptionTerms", TodoSearchTerms.of(operation.todo().description()))
+                            .set("modSeq", firstModSeq + index)
+                            .inc("version", 1));
+                    results[index] = success(index, operation.id(), HttpStatus.OK);
+                }
+                case DELETE -> {
+                    // a todo missing before the batch cannot be deleted by it, ids are never reused
+                    if (!deletableTodos.containsKey(operation.id()) || !queuedDeletes.add(operation.id())) {
+                        results[index] = notFound(index, operation.id());
+                        continue;
+                    }
+                    // not removed from the id filter, a concurrent delete may have removed it as well
+                    bulkOperations.remove(byId(operation.id()));
+                    results[index] = success(index, operation.id(), HttpStatus.OK);
+                }
+            }
+            bulkIndexes.add(index);
+        }
+
+        if (!bulkIndexes.isEmpty()) {
+            BulkWriteResult bulkWriteResult;
+            try {
+                bulkWriteResult = bulkOperations.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError writeError : e.getErrors()) {
+                    int index = bulkIndexes.get(writeError.getIndex());
+                    HttpStatus status = writeError.getCode() == DUPLICATE_KEY_ERROR_CODE
+                            ? HttpStatus.CONFLICT
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    results[index] = failure(index, results[index].id(), status, writeError.getMessage());
+                }
+                bulkWriteResult = e.getResult();
+            } finally {
+                List<String> writtenIds = bulkIndexes.stream()
+                        .map(index -> operations.get(index).id())
+                        .filter(Objects::nonNull)
+                        .toList();
+                todoCache.evictAll(writtenIds);
+            }
+            resolveUnmatchedUpdates(operations, results, bulkIndexes, bulkWriteResult.getMatchedCount(), firstModSeq);
+            resolveUnmatchedDeletes(operations, results, bulkIndexes, bulkWriteResult.getDeletedCount());
+            Instant deletedAt = Instant.now();
+            List<Integer> deletedIndexes = succeeded(operations, results, bulkIndexes, TodoBatchOperation.Type.DELETE);
+            todoChangesService.recordDeletions(deletedIndexes.stream()
+                    .map(index -> new TodoTombstone(operations.get(index).id(), firstModSeq + index, deletedAt))
+                    .toList());
+            deletedIndexes.forEach(index -> todoStatsService.deleted(deletableTodos.get(operations.get(index).id())));
+            succeeded(operations, results, bulkIndexes, TodoBatchOperation.Type.CREATE)
+                    .forEach(index -> todoStatsService.created(createdTodos[index]));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * The bulk result only counts the matched updates. When some did not match, the todos that exist now
+     * tell which: ids are never reused, so a todo that exists after the batch existed for its update, and an
+     * update with a version matched only if the todo still carries its number.
+     */
+    private void resolveUnmatchedUpdates(List<TodoBatchOperation> operations, TodoBatchResult[] results,
+                                         List<Integer> bulkIndexes, int matchedCount, long firstModSeq) {
+        List<Integer> updateIndexes = succeeded(operations, results, bulkIndexes, TodoBatchOperation.Type.UPDATE);
+        if (matchedCount >= updateIndexes.size()) {
+            return;
+        }
+        List<String> ids = updateIndexes.stream().map(index -> operations.get(index).id()).distinct().toList();
+        Query query = Query.query(Criteria.where("id").in(ids)).addCriteria(TodoPartition.defaultBoardCriteria());
+        query.fields().include("id", "modSeq");
+        Map<String, Long> modSeqs = new HashMap<>();
+        for (Todo todo : mongoTemplate.find(query, Todo.class)) {
+            modSeqs.put(todo.getId(), todo.getModSeq());
+        }
+        for (int index : updateIndexes) {
+            TodoBatchOperation operation = operations.get(index);
+            // a todo deleted right after its update is reported as missing as well
+            if (!modSeqs.containsKey(operation.id())) {
+                results[index] = notFound(index, operation.id());
+            } else if (operation.todo().version() != null && !Objects.equals(modSeqs.get(operation.id()), firstModSeq + index)) {
+                // and one written again right after its versioned update as a conflict
+                results[index] = failure(index, operation.id(), HttpStatus.CONFLICT,
+                        "Todo with id " + operation.id() + " is no longer at version " + operation.todo().version());
+            }
+        }
+    }
+
+    /**
+     * Every queued delete targets a todo that existed before the batch, so a delete that matched nothing lost
+     * the race against another delete, which left its tombstone. A delete that removed the todo but has not
+     * written its tombstone yet is counted as this batch's.
+     */
+    private void resolveUnmatchedDeletes(List<TodoBatchOperation> operations, TodoBatchResult[] results,
+                                         List<Integer> bulkIndexes, int deletedCount) {
+        List<Integer> deleteIndexes = succeeded(operations, results, bulkIndexes, TodoBatchOperation.Type.DELETE);
+        if (deletedCount >= deleteIndexes.size()) {
+            return;
+        }
+        List<String> ids = deleteIndexes.stream().map(index -> operations.get(index).id()).toList();
+        Set<String> deletedElsewhere = new HashSet<>();
+        for (TodoTombstone tombstone : mongoTemplate.find(Query.query(Criteria.where("id").in(ids)), TodoTombstone.class)) {
+            deletedElsewhere.add(tombstone.id());
+        }
+        for (int index : deleteIndexes) {
+            if (deletedElsewhere.contains(operations.get(index).id())) {
+                results[index] = notFound(index, operations.get(index).id());
+            }
+        }
+    }
+
+    private static List<Integer> succeeded(List<TodoBatchOperation> operations, TodoBatchResult[] results,
+                                           List<Integer> bulkIndexes, TodoBatchOperation.Type type) {
+        return bulkIndexes.stream()
+                .filter(index -> operations.get(index).type() == type && results[index].error() == null)
+                .toList();
+    }
+
+    // status and createdAt are what the stats need for deleted todos
+    private Map<String, Todo> findDeletableTodos(List<TodoBatchOperation> operations) {
+        List<String> ids = operations.stream()
+                .filter(operation -> operation.type() == TodoBatchOperation.Type.DELETE)
+                .map(TodoBatchOperation::id)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("id").in(ids)).addCriteria(TodoPartition.defaultBoardCriteria());
+        query.fields().include("id", "status", "createdAt");
+        Map<String, Todo> deletableTodos = new HashMap<>();
+        for (Todo todo : mongoTemplate.find(query, Todo.class)) {
+            deletableTodos.put(todo.getId(), todo);
+        }
+        return deletableTodos;
+    }
+
+    private String validate(TodoBatchOperation operation) {
+        if (operation.type() == null) {
+            return "Operation type is required";
+        }
+        if (operation.type() != TodoBatchOperation.Type.CREATE && operation.id() == null) {
+            return "Id is required";
+        }
+        if (operation.type() == TodoBatchOperation.Type.DELETE) {
+            return null;
+        }
+        if (operation.todo() == null) {
+            return "Todo is required";
+        }
+        Set<ConstraintViolation<TodoDto>> violations = validator.validate(operation.todo());
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    // the board-less endpoints only see the default board
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id)).addCriteria(TodoPartition.defaultBoardCriteria());
+    }
+
+    private static Query versioned(String id, Long expectedVersion) {
+        Query query = byId(id);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+
+    private static TodoBatchResult success(int index, String id, HttpStatus status) {
+        return new TodoBatchResult(index, id, status.value(), null);
+    }
+
+    private static TodoBatchResult notFound(int index, String id) {
+        return failure(index, id, HttpStatus.NOT_FOUND, "No todo with id " + id);
+    }
+
+    private static TodoBatchResult failure(int index, String id, HttpStatus status, String error) {
+        return new TodoBatchResult(index, id, status.value(), error);
+    }
+}
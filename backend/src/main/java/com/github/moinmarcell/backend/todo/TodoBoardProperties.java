@@ -0,0 +1,21 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Boards that get a partition of their own, for example
+ * {@code todos.boards.dedicated.acme.collection=todos_acme} and {@code todos.boards.dedicated.acme.database=acme}.
+ * A missing collection defaults to {@code todos_<boardId>}, a missing database to the application database.
+ */
+@ConfigurationProperties("todos.boards")
+public record TodoBoardProperties(Map<String, Dedicated> dedicated) {
+
+    public TodoBoardProperties {
+        dedicated = dedicated == null ? Map.of() : Map.copyOf(dedicated);
+    }
+
+    public record Dedicated(String collection, String database) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache in front of the todo collection.
+ * <p>
+ * Single todos are cached by id and refreshed or evicted by the service's own writes; writes from
+ * other instances are only picked up once the TTL expires.
+ * List pages are cached per snapshot of {@link TodoChangesService#snapshot()}, which includes the
+ * {@link #generation()} every write of this instance bumps, and the writes of other instances once they are
+ * past the watermark.
+ */
+@Component
+public class TodoCache implements MeterBinder {
+    private static final int MAX_CACHED_PAGES = 256;
+
+    private final Cache<String, Todo> todos;
+    private final Cache<PageKey, TodoPage> pages;
+    // starts at a random number, so the snapshots of other instances and earlier runs do not match this one's
+    private final AtomicLong generation = new AtomicLong(ThreadLocalRandom.current().nextLong() >>> 1);
+
+    public TodoCache(@Value("${todos.cache.max-size:10000}") long maximumSize,
+                     @Value("${todos.cache.ttl:1m}") Duration ttl) {
+        this.todos = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_PAGES)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Todo getTodo(String id, Function<String, Todo> loader) {
+        return todos.get(id, loader);
+    }
+
+    public Todo getIfPresent(String id) {
+        return todos.getIfPresent(id);
+    }
+
+    /**
+     * Loads the page without caching it if there is no {@code snapshot}.
+     */
+    public TodoPage getPage(@Nullable String snapshot, String cursor, int limit, Supplier<TodoPage> loader) {
+        if (snapshot == null) {
+            return loader.get();
+        }
+        return pages.get(new PageKey(snapshot, cursor, limit), key -> loader.get());
+    }
+
+    public void put(Todo todo) {
+        todos.put(todo.getId(), todo);
+        generation.incrementAndGet();
+    }
+
+    public void putAll(Collection<Todo> todos) {
+        for (Todo todo : todos) {
+            this.todos.put(todo.getId(), todo);
+        }
+        generation.incrementAndGet();
+    }
+
+    public void evict(String id) {
+        todos.invalidate(id);
+        generation.incrementAndGet();
+    }
+
+    public void evictAll(Collection<String> ids) {
+        todos.invalidateAll(ids);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Changes after every write of this instance, each of which puts or evicts the todos it wrote.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public CacheStats todoStats() {
+        return todos.stats();
+    }
+
+    public CacheStats pageStats() {
+        return pages.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, todos, "todos");
+        CaffeineCacheMetrics.monitor(registry, pages, "todo-pages");
+    }
+
+    private record PageKey(String snapshot, String cursor, int limit) {
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.util.List;
+
+public record TodoChanges(List<Todo> todos, List<TodoTombstone> deleted, String token, boolean hasMore) {
+}
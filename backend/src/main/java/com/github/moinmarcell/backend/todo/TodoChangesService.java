@@ -0,0 +1,218 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.github.moinmarcell.backend.exception.ChangesTokenExpiredException;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Change feed of the default board over the modification sequence. Deleted todos are kept as tombstones
+ * for the retention period; tokens older than the compacted tombstones must fall back to a full reload.
+ */
+@Service
+public class TodoChangesService {
+    private final MongoTemplate mongoTemplate;
+    private final TodoSequence todoSequence;
+    private final TodoCache todoCache;
+    private final Duration tombstoneRetention;
+    private final long snapshotRefreshNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Checkpoint checkpoint;
+
+    public TodoChangesService(MongoTemplate mongoTemplate,
+                              TodoSequence todoSequence,
+                              TodoCache todoCache,
+                              @Value("${todos.changes.tombstone-retention:P7D}") Duration tombstoneRetention,
+                              @Value("${todos.changes.snapshot-refresh:1s}") Duration snapshotRefresh) {
+        this.mongoTemplate = mongoTemplate;
+        this.todoSequence = todoSequence;
+        this.todoCache = todoCache;
+        this.tombstoneRetention = tombstoneRetention;
+        this.snapshotRefreshNanos = snapshotRefresh.toNanos();
+    }
+
+    public TodoChanges getChanges(String token, Integer limit) {
+        int pageSize = TodoService.pageSize(limit);
+        long since = token == null ? 0 : decodeToken(token);
+        if (since > 0 && since < todoSequence.compactedThrough()) {
+            throw new ChangesTokenExpiredException("Deletions since token " + token + " are no longer retained");
+        }
+        long upTo = todoSequence.watermark();
+        if (upTo <= since) {
+            return new TodoChanges(List.of(), List.of(), encodeToken(since), false);
+        }
+        // tombstones are only written for the default board, so they need no such criteria
+        Query todoQuery = changedBetween(since, upTo, pageSize).addCriteria(TodoPartition.defaultBoardCriteria());
+        todoQuery.fields().exclude("titleTerms", "descriptionTerms");
+        List<Todo> todos = mongoTemplate.find(todoQuery, Todo.class);
+        // a client syncing from scratch has nothing to delete
+        List<TodoTombstone> tombstones = since == 0
+                ? List.of()
+                : mongoTemplate.find(changedBetween(since, upTo, pageSize), TodoTombstone.class);
+        return merge(todos, tombstones, pageSize, upTo);
+    }
+
+    /**
+     * Tag of the todos of the default board, mostly without a round trip: the newest change up to the
+     * watermark, read at most once per refresh interval, and the {@link TodoCache#generation()} of this
+     * instance. Its own writes change the tag at once, the writes of other instances once the watermark has
+     * passed them and the checkpoint is read again, so within the safety lag plus the refresh interval.
+     * Writes that bypass the services and take no number are not seen.
+     */
+    public String snapshot() {
+        return checkpoint().modSeq() + "-" + todoCache.generation();
+    }
+
+    private Checkpoint checkpoint() {
+        Checkpoint current = checkpoint;
+        if (current != null && !current.expired(snapshotRefreshNanos)) {
+            return current;
+        }
+        // one reader refreshes while the others keep the previous checkpoint, only the first one is waited for
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = checkpoint;
+            if (current == null || current.expired(snapshotRefreshNanos)) {
+                long readAt = System.nanoTime();
+                Document change = mongoTemplate.aggregate(newestChange(todoSequence.watermark()), "todos", Document.class)
+                        .getUniqueMappedResult();
+                // never goes back to a tag that was handed out for an earlier state
+                long modSeq = Math.max(current == null ? 0 : current.modSeq(), newestModSeq(change));
+                current = new Checkpoint(modSeq, readAt);
+                checkpoint = current;
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * The newest number up to the watermark of a todo of the default board, a tombstone or the compaction,
+     * which covers the tombstones it removed. Fenced by the watermark, so it only changes once more when a
+     * write numbered below it commits late.
+     */
+    static Aggregation newestChange(long watermark) {
+        return Aggregation.newAggregation(
+                Aggregation.match(TodoPartition.defaultBoardCriteria().and("modSeq").lte(watermark)),
+                Aggregation.sort(Sort.Direction.DESC, "modSeq"),
+                Aggregation.limit(1),
+                Aggregation.project("modSeq"),
+                UnionWithOperation.unionWith("todo_tombstones").pipeline(
+                        Aggregation.match(Criteria.where("modSeq").lte(watermark)),
+                        Aggregation.sort(Sort.Direction.DESC, "modSeq"),
+                        Aggregation.limit(1),
+                        Aggregation.project("modSeq")),
+                UnionWithOperation.unionWith(TodoSequence.COLLECTION).pipeline(
+                        Aggregation.match(Criteria.where("compacted").exists(true)),
+                        Aggregation.project().and("compacted").as("modSeq")),
+                Aggregation.group().max("modSeq").as("modSeq"));
+    }
+
+    static long newestModSeq(@Nullable Document newestChange) {
+        Number modSeq = newestChange == null ? null : newestChange.get("modSeq", Number.class);
+        return modSeq == null ? 0 : modSeq.longValue();
+    }
+
+    void recordDeletions(Collection<TodoTombstone> tombstones) {
+        if (tombstones.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TodoTombstone.class);
+        for (TodoTombstone tombstone : tombstones) {
+            bulkOperations.upsert(Query.query(Criteria.where("id").is(tombstone.id())), new Update()
+                    .set("modSeq", tombstone.modSeq())
+                    .set("deletedAt", tombstone.deletedAt()));
+        }
+        bulkOperations.execute();
+    }
+
+    @Scheduled(initialDelayString = "${todos.changes.compaction-interval:PT1H}",
+            fixedDelayString = "${todos.changes.compaction-interval:PT1H}")
+    public void compactTombstones() {
+        Query expired = Query.query(Criteria.where("deletedAt").lt(Instant.now().minus(tombstoneRetention)))
+                .with(Sort.by(Sort.Direction.DESC, "modSeq"))
+                .limit(1);
+        TodoTombstone newestExpired = mongoTemplate.findOne(expired, TodoTombstone.class);
+        if (newestExpired == null) {
+            return;
+        }
+        // raised first, so a reader never gets an incomplete list of deletions without a 410
+        todoSequence.compactThrough(newestExpired.modSeq());
+        mongoTemplate.remove(Query.query(Criteria.where("modSeq").lte(newestExpired.modSeq())), TodoTombstone.class);
+    }
+
+    private static Query changedBetween(long since, long upTo, int pageSize) {
+        return Query.query(Criteria.where("modSeq").gt(since).lte(upTo))
+                .with(Sort.by("modSeq"))
+                .limit(pageSize + 1);
+    }
+
+    private static TodoChanges merge(List<Todo> todos, List<TodoTombstone> tombstones, int pageSize, long upTo) {
+        List<Todo> changedTodos = new ArrayList<>();
+        List<TodoTombstone> deleted = new ArrayList<>();
+        int todoIndex = 0;
+        int tombstoneIndex = 0;
+        long lastModSeq = 0;
+        while (changedTodos.size() + deleted.size() < pageSize
+                && (todoIndex < todos.size() || tombstoneIndex < tombstones.size())) {
+            boolean nextIsTodo = tombstoneIndex == tombstones.size() || (todoIndex < todos.size()
+                    && todos.get(todoIndex).getModSeq() < tombstones.get(tombstoneIndex).modSeq());
+            if (nextIsTodo) {
+                Todo todo = todos.get(todoIndex++);
+                changedTodos.add(todo);
+                lastModSeq = todo.getModSeq();
+            } else {
+                TodoTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deleted.add(tombstone);
+                lastModSeq = tombstone.modSeq();
+            }
+        }
+        boolean hasMore = todoIndex < todos.size() || tombstoneIndex < tombstones.size();
+        return new TodoChanges(changedTodos, deleted, encodeToken(hasMore ? lastModSeq : upTo), hasMore);
+    }
+
+    private static String encodeToken(long modSeq) {
+        return TodoCursor.encode(Long.toString(modSeq));
+    }
+
+    private static long decodeToken(String token) {
+        try {
+            long modSeq = Long.parseLong(TodoCursor.decode(token));
+            if (modSeq < 0) {
+                throw new BadRequestException("Invalid token");
+            }
+            return modSeq;
+        } catch (NumberFormatException | BadRequestException e) {
+            throw new BadRequestException("Invalid token", e);
+        }
+    }
+
+    private record Checkpoint(long modSeq, long readAt) {
+        boolean expired(long refreshNanos) {
+            return System.nanoTime() - readAt >= refreshNanos;
+        }
+    }
+}
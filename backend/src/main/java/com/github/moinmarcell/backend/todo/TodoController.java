@@ -1,28 +1,109 @@
 package com.github.moinmarcell.backend.todo;
 
+import com.github.moinmarcell.backend.exception.PreconditionFailedException;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/todos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TodoController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TodoService todoService;
+    private final TodoExportService todoExportService;
+    private final TodoBatchService todoBatchService;
+    private final TodoChangesService todoChangesService;
+    private final TodoArchiveService todoArchiveService;
+    private final TodoStatsService todoStatsService;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoExportService todoExportService,
+                          TodoBatchService todoBatchService, TodoChangesService todoChangesService,
+                          TodoArchiveService todoArchiveService, TodoStatsService todoStatsService) {
         this.todoService = todoService;
+        this.todoExportService = todoExportService;
+        this.todoBatchService = todoBatchService;
+        this.todoChangesService = todoChangesService;
+        this.todoArchiveService = todoArchiveService;
+        this.todoStatsService = todoStatsService;
     }
 
     @GetMapping
-    public List<Todo> getTodos() {
-        return todoService.getTodos();
+    public ResponseEntity<List<Todo>> getTodos(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) String fields,
+                                               WebRequest webRequest) {
+        // taken before the page is loaded, so a concurrent write can only make the tag older than the page
+        String snapshot = todoService.getTodosSnapshot();
+        if (webRequest.checkNotModified(TodoETags.forTodos(snapshot))) {
+            return null;
+        }
+        TodoPage page = todoService.getTodos(cursor, limit, fields, snapshot);
+        return pageResponse(page);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportTodos() {
+        return todoExportService::exportTodos;
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public String importTodos(InputStream inputStream) throws IOException {
+        return "Imported " + todoExportService.importTodos(inputStream) + " todos";
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Todo>> searchTodos(@RequestParam(required = false) String q,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit) {
+        return pageResponse(todoService.searchTodos(q, cursor, limit));
+    }
+
+    @GetMapping("/changes")
+    public TodoChanges getChanges(@RequestParam(required = false) String since,
+                                  @RequestParam(required = false) Integer limit) {
+        return todoChangesService.getChanges(since, limit);
+    }
+
+    @GetMapping("/stats")
+    public TodoStats getStats() {
+        return todoStatsService.getStats();
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<List<Todo>> getArchivedTodos(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit) {
+        return pageResponse(todoArchiveService.getArchivedTodos(cursor, limit));
+    }
+
+    @GetMapping("/archive/{id}")
+    public Todo getArchivedTodo(@PathVariable String id) {
+        return todoArchiveService.getArchivedTodo(id);
     }
 
     @GetMapping("/{id}")
-    public Todo getTodo(@PathVariable String id) {
-        return todoService.getTodo(id);
+    public Todo getTodo(@PathVariable String id,
+                        @RequestParam(required = false) String fields,
+                        WebRequest webRequest) {
+        Todo todo = todoService.getTodo(id, fields);
+        if (webRequest.checkNotModified(TodoETags.forTodo(todo))) {
+            return null;
+        }
+        return todo;
     }
 
     @PostMapping
@@ -31,13 +112,55 @@ public class TodoController {
         return todoService.addTodo(todoDto);
     }
 
+    @PostMapping("/batch")
+    public List<TodoBatchResult> executeBatch(@RequestBody List<TodoBatchOperation> operations) {
+        return todoBatchService.executeBatch(operations);
+    }
+
     @PutMapping("/{id}")
-    public Todo updateTodo(@PathVariable String id, @RequestBody @Valid TodoDto todoDto) {
-        return todoService.updateTodo(id, todoDto);
+    public ResponseEntity<Todo> updateTodo(@PathVariable String id,
+                                           @RequestBody @Valid TodoDto todoDto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Todo updatedTodo = ifMatch == null
+                ? todoService.updateTodo(id, todoDto)
+                : withPrecondition(() -> todoService.updateTodo(id,
+                new TodoDto(todoDto.title(), todoDto.description(), TodoETags.expectedVersion(ifMatch))));
+        return ResponseEntity.ok().eTag(TodoETags.forTodo(updatedTodo)).body(updatedTodo);
+    }
+
+    @PutMapping("/{id}/move")
+    public ResponseEntity<Todo> moveTodo(@PathVariable String id,
+                                         @RequestBody @Valid TodoMoveDto todoMoveDto,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Todo movedTodo = ifMatch == null
+                ? todoService.moveTodo(id, todoMoveDto)
+                : withPrecondition(() -> todoService.moveTodo(id, new TodoMoveDto(todoMoveDto.status(),
+                todoMoveDto.previousId(), todoMoveDto.nextId(), TodoETags.expectedVersion(ifMatch))));
+        return ResponseEntity.ok().eTag(TodoETags.forTodo(movedTodo)).body(movedTodo);
     }
 
     @DeleteMapping("/{id}")
-    public String deleteTodo(@PathVariable String id) {
-        return todoService.deleteTodo(id);
+    public String deleteTodo(@PathVariable String id,
+                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return todoService.deleteTodo(id);
+        }
+        return withPrecondition(() -> todoService.deleteTodo(id, TodoETags.expectedVersion(ifMatch)));
+    }
+
+    private static ResponseEntity<List<Todo>> pageResponse(TodoPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.todos());
+    }
+
+    static <T> T withPrecondition(Supplier<T> conditionalWrite) {
+        try {
+            return conditionalWrite.get();
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException(e.getMessage());
+        }
     }
 }
@@ -7,6 +7,10 @@ public record TodoDto(
         @NotBlank(message = "Title is required")
         @Size(min = 3, max = 255, message = "Title must be between 3 and 255 characters")
         String title,
-        String description
+        String description,
+        Long version
 ) {
+    public TodoDto(String title, String description) {
+        this(title, description, null);
+    }
 }
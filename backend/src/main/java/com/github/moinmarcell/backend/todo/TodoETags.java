@@ -0,0 +1,44 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.PreconditionFailedException;
+
+/**
+ * Strong ETags derived from version counters, so they can be checked without serializing or hashing a body.
+ * A single todo is tagged with its document version, the list with the collection snapshot of {@link TodoChangesService}.
+ */
+final class TodoETags {
+    private static final String ANY = "*";
+
+    private TodoETags() {
+    }
+
+    static String forTodos(String snapshot) {
+        return quote("todos-" + snapshot);
+    }
+
+    static String forTodo(Todo todo) {
+        return quote(String.valueOf(todo.getVersion()));
+    }
+
+    /**
+     * Returns the todo version an {@code If-Match} header asks for, or {@code null} if any version matches.
+     */
+    static Long expectedVersion(String ifMatch) {
+        String eTag = ifMatch.trim();
+        if (ANY.equals(eTag)) {
+            return null;
+        }
+        if (eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match must be a single strong ETag");
+        }
+        try {
+            return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + eTag + " does not match the todo");
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
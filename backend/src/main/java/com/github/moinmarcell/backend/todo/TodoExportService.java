@@ -0,0 +1,206 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Newline-delimited JSON export and import of the todos of the default board.
+ * Both directions work on one todo at a time, so memory use does not grow with the collection size.
+ */
+@Service
+public class TodoExportService {
+    static final int FLUSH_INTERVAL = 500;
+    static final int IMPORT_BATCH_SIZE = 500;
+
+    private final TodoRepository todoRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final TodoSequence todoSequence;
+    private final TodoStatsService todoStatsService;
+    private final TodoCache todoCache;
+    private final TodoIdFilter todoIdFilter;
+    private final ObjectWriter todoWriter;
+    private final ObjectReader todoReader;
+
+    public TodoExportService(TodoRepository todoRepository, MongoTemplate mongoTemplate, Validator validator,
+                             TodoSequence todoSequence, TodoStatsService todoStatsService, TodoCache todoCache,
+                             @Nullable TodoIdFilter todoIdFilter, ObjectMapper objectMapper) {
+        this.todoRepository = todoRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.validator = validator;
+        this.todoSequence = todoSequence;
+        this.todoStatsService = todoStatsService;
+        this.todoCache = todoCache;
+        this.todoIdFilter = todoIdFilter;
+        this.todoWriter = objectMapper.writerFor(Todo.class);
+        this.todoReader = objectMapper.readerFor(Todo.class);
+    }
+
+    public long exportTodos(OutputStream outputStream) throws IOException {
+        long count = 0;
+        // the board-less endpoints only see the default board
+        Query query = Query.query(TodoPartition.defaultBoardCriteria()).with(Sort.by("id"));
+        try (Stream<Todo> todos = mongoTemplate.stream(query, Todo.class)) {
+            Iterator<Todo> iterator = todos.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(todoWriter.writeValueAsBytes(iterator.next()));
+                outputStream.write('\n');
+                if (++count % FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        return count;
+    }
+
+    /**
+     * Imports all todos or none: every line is validated, and spooled to a temporary file, and the ids the
+     * lines bring are checked against each other and the collection before the first batch is inserted, so a
+     * bad line or a taken id in the middle of the stream leaves the collection as it was. Only a todo created
+     * with one of those ids while the import runs can still fail it after some batches were inserted.
+     */
+    public long importTodos(InputStream inputStream) throws IOException {
+        Path validatedTodos = Files.createTempFile("todos-import", ".ndjson");
+        try {
+            // only the ids the lines bring are held in memory, the generated ones are unique anyway
+            Set<String> importedIds = new HashSet<>();
+            Map<String, Integer> uncheckedIds = new HashMap<>();
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(validatedTodos));
+                 MappingIterator<Todo> todos = todoReader.readValues(inputStream)) {
+                Todo todo;
+                while ((todo = nextTodo(todos)) != null) {
+                    int lineNumber = todos.getCurrentLocation().getLineNr();
+                    if (todo.getId() != null) {
+                        if (!importedIds.add(todo.getId())) {
+                            throw new BadRequestException("Duplicate id " + todo.getId() + " at line " + lineNumber);
+                        }
+                        uncheckedIds.put(todo.getId(), lineNumber);
+                        if (uncheckedIds.size() == IMPORT_BATCH_SIZE) {
+                            requireUnusedIds(uncheckedIds);
+                        }
+                    }
+                    outputStream.write(todoWriter.writeValueAsBytes(prepareForImport(todo, lineNumber)));
+                    outputStream.write('\n');
+                }
+            }
+            requireUnusedIds(uncheckedIds);
+            return insertAll(validatedTodos);
+        } finally {
+            Files.deleteIfExists(validatedTodos);
+        }
+    }
+
+    // ids are unique across boards, so a todo of any board takes it
+    private void requireUnusedIds(Map<String, Integer> uncheckedIds) {
+        if (uncheckedIds.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("id").in(uncheckedIds.keySet()));
+        query.fields().include("id");
+        Todo existingTodo = mongoTemplate.findOne(query, Todo.class);
+        if (existingTodo != null) {
+            throw new DuplicateKeyException("Todo with id " + existingTodo.getId() + " at line "
+                    + uncheckedIds.get(existingTodo.getId()) + " already exists");
+        }
+        uncheckedIds.clear();
+    }
+
+    private long insertAll(Path validatedTodos) throws IOException {
+        long count = 0;
+        List<Todo> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        try (InputStream inputStream = Files.newInputStream(validatedTodos);
+             MappingIterator<Todo> todos = todoReader.readValues(inputStream)) {
+            while (todos.hasNextValue()) {
+                batch.add(todos.nextValue());
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    count += insertBatch(batch);
+                }
+            }
+        }
+        return count + insertBatch(batch);
+    }
+
+    private static Todo nextTodo(MappingIterator<Todo> todos) throws IOException {
+        try {
+            return todos.hasNextValue() ? todos.nextValue() : null;
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid todo at line " + todos.getCurrentLocation().getLineNr(), e);
+        }
+    }
+
+    private Todo prepareForImport(Todo todo, int lineNumber) {
+        if (todo.getTitle() == null || todo.getTitle().isBlank()) {
+            throw new BadRequestException("Title is required at line " + lineNumber);
+        }
+        // the same constraints as a todo created through the API
+        Set<ConstraintViolation<TodoDto>> violations = validator.validate(new TodoDto(todo.getTitle(), todo.getDescription()));
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.iterator().next().getMessage() + " at line " + lineNumber);
+        }
+        if (todo.getId() == null) {
+            todo.setId(new ObjectId().toHexString());
+        }
+        // imported through the board-less endpoint, so onto the board it works on
+        todo.setBoardId(Todo.DEFAULT_BOARD);
+        if (todo.getCreatedAt() == null) {
+            todo.setCreatedAt(LocalDate.now());
+        }
+        if (todo.getStatus() == null) {
+            todo.setStatus(TodoStatus.TODO);
+        }
+        if (todo.getRank() == null) {
+            todo.setRank(TodoRank.next());
+        }
+        return todo;
+    }
+
+    private int insertBatch(List<Todo> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (todoIdFilter != null) {
+            batch.forEach(todo -> todoIdFilter.add(todo.getId()));
+        }
+        int size = todoSequence.write(batch.size(), firstModSeq -> {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setModSeq(firstModSeq + i);
+            }
+            return todoRepository.insert(batch).size();
+        });
+        batch.forEach(todoStatsService::created);
+        todoCache.putAll(batch);
+        batch.clear();
+        return size;
+    }
+}
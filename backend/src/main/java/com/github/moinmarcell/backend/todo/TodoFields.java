@@ -0,0 +1,85 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sparse fieldset of a read request. The fields become a Mongo projection, so skipped fields are never
+ * read from storage. {@code id} and {@code version} are always included, since cursors and ETags depend on them.
+ * Projected todos leave out the fields that were not selected instead of writing them as {@code null}.
+ */
+final class TodoFields {
+    private static final List<String> SELECTABLE = List.of("id", "boardId", "title", "description", "createdAt", "status", "doneAt", "rank", "version", "modSeq");
+
+    private final Set<String> fields;
+
+    private TodoFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Returns {@code null} if no fieldset was requested, meaning the whole todo.
+     */
+    static TodoFields parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>(List.of("id", "version"));
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!SELECTABLE.contains(name)) {
+                throw new BadRequestException("Unknown field '" + name + "', expected any of " + String.join(", ", SELECTABLE));
+            }
+            selected.add(name);
+        }
+        return new TodoFields(selected);
+    }
+
+    void applyTo(Query query) {
+        query.fields().include(fields.toArray(String[]::new));
+    }
+
+    /**
+     * Projects a todo loaded in full, for example from the cache, or one read with the projection.
+     */
+    Todo project(Todo todo) {
+        Todo projected = new ProjectedTodo();
+        projected.setId(todo.getId());
+        projected.setVersion(todo.getVersion());
+        if (fields.contains("boardId")) {
+            projected.setBoardId(todo.getBoardId());
+        }
+        if (fields.contains("title")) {
+            projected.setTitle(todo.getTitle());
+        }
+        if (fields.contains("description")) {
+            projected.setDescription(todo.getDescription());
+        }
+        if (fields.contains("createdAt")) {
+            projected.setCreatedAt(todo.getCreatedAt());
+        }
+        if (fields.contains("status")) {
+            projected.setStatus(todo.getStatus());
+        }
+        if (fields.contains("doneAt")) {
+            projected.setDoneAt(todo.getDoneAt());
+        }
+        if (fields.contains("rank")) {
+            projected.setRank(todo.getRank());
+        }
+        if (fields.contains("modSeq")) {
+            projected.setModSeq(todo.getModSeq());
+        }
+        return projected;
+    }
+
+    // only projected responses skip null fields, a whole todo keeps its null fields
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private static final class ProjectedTodo extends Todo {
+    }
+}
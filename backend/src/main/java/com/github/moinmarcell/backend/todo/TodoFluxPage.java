@@ -0,0 +1,6 @@
+package com.github.moinmarcell.backend.todo;
+
+import reactor.core.publisher.Flux;
+
+public record TodoFluxPage(Flux<Todo> todos, String nextCursor) {
+}
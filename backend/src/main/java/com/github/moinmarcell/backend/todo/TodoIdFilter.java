@@ -0,0 +1,267 @@
+package com.github.moinmarcell.backend.todo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counting Bloom filter over the ids of live todos, so lookups of ids that never existed or are deleted
+ * are answered without a Mongo round trip. {@link #mightContain} has no false negatives: ids are added
+ * before they are inserted and removed only after a delete that is known to have removed exactly that
+ * todo, and until the ids are loaded at startup every id might exist.
+ * <p>
+ * Removes that cannot tell whether they matched, from batches and the archive, are left out; their ids
+ * stay in the filter as false positives until the next start.
+ * <p>
+ * Off by default. Enable it with {@code todos.id-filter.enabled} only for single-writer deployments: the
+ * filter only learns the ids this instance writes, so todos created by another instance answer 404 here.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "todos.id-filter.enabled", havingValue = "true")
+public class TodoIdFilter implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(TodoIdFilter.class);
+    // 4-bit counters, sixteen per long; a saturated counter is never decremented again
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicLongArray counters;
+    private final int size;
+    private final int hashes;
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile boolean loaded;
+    private volatile Thread loader;
+
+    public TodoIdFilter(MongoTemplate mongoTemplate,
+                        @Value("${todos.id-filter.expected-ids:1000000}") int expectedIds,
+                        @Value("${todos.id-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.mongoTemplate = mongoTemplate;
+        if (expectedIds < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Todo id filter needs expected ids >= 1 and a false positive rate in (0, 1)");
+        }
+        // the textbook optimum: m = -n ln p / (ln 2)^2 counters and k = m / n ln 2 hash functions
+        long optimalSize = (long) Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long words = Math.min(Integer.MAX_VALUE / COUNTERS_PER_WORD, (optimalSize + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        this.counters = new AtomicLongArray((int) words);
+        this.size = (int) words * COUNTERS_PER_WORD;
+        this.hashes = Math.max(1, (int) Math.round((double) size / expectedIds * Math.log(2)));
+    }
+
+    /**
+     * {@code false} only if no todo with this id exists.
+     */
+    public boolean mightContain(String id) {
+        if (!loaded || contains(id)) {
+            passed.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Reports that an id {@link #mightContain} let through was not found, for the observed false positive rate.
+     */
+    public void notFound() {
+        if (loaded) {
+            falsePositives.increment();
+        }
+    }
+
+    public void add(String id) {
+        long hash1 = hash(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            increment(index(hash1, hash2, i));
+        }
+        ids.incrementAndGet();
+    }
+
+    public void addAll(Collection<String> ids) {
+        ids.forEach(this::add);
+    }
+
+    /**
+     * Must be called at most once per deleted todo: a second remove would hide ids sharing its counters.
+     */
+    public void remove(String id) {
+        // before the ids are loaded the todo may not have been counted yet, it stays a false positive instead
+        if (!loaded || !contains(id)) {
+            return;
+        }
+        long hash1 = hash(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            decrement(index(hash1, hash2, i));
+        }
+        ids.decrementAndGet();
+    }
+
+    /**
+     * The false positive rate for the current number of ids: (1 - e^(-kn/m))^k.
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * Math.max(0, ids.get()) / size), hashes);
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Reads all ids of the collection; writes meanwhile add their ids themselves, so none is missed.
+     */
+    void load() {
+        Query query = new Query();
+        query.fields().include("_id");
+        long count = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Todo.class))) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                add(String.valueOf(document.get("_id")));
+                count++;
+            }
+        }
+        loaded = true;
+        log.info("Loaded {} todo ids into the id filter", count);
+    }
+
+    @Override
+    public synchronized void start() {
+        loader = Thread.ofPlatform().name("todo-id-filter-loader").daemon().start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                // lookups keep going to Mongo
+                log.error("Failed to load todo ids, the id filter stays disabled", e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void stop() {
+        loader = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return loader != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todos.id.filter.ids", ids, AtomicLong::get)
+                .description("Ids counted in the todo id filter")
+                .register(registry);
+        Gauge.builder("todos.id.filter.memory", counters, array -> (double) array.length() * Long.BYTES)
+                .description("Memory used by the counters of the todo id filter")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("todos.id.filter.expected.false.positive.rate", this, TodoIdFilter::expectedFalsePositiveRate)
+                .description("False positive rate of the todo id filter for the ids it currently counts")
+                .register(registry);
+        FunctionCounter.builder("todos.id.filter.lookups", rejected, LongAdder::sum)
+                .description("Todo lookups by id, by whether the id filter answered them")
+                .tag("result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("todos.id.filter.lookups", passed, LongAdder::sum)
+                .description("Todo lookups by id, by whether the id filter answered them")
+                .tag("result", "passed")
+                .register(registry);
+        // false positives / (false positives + rejected) is the observed false positive rate
+        FunctionCounter.builder("todos.id.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Lookups the todo id filter let through for ids that did not exist")
+                .register(registry);
+    }
+
+    private boolean contains(String id) {
+        long hash1 = hash(id);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            if (counter(index(hash1, hash2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long counter(int index) {
+        return (counters.get(index / COUNTERS_PER_WORD) >>> shift(index)) & COUNTER_MAX;
+    }
+
+    private void increment(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long value = counters.get(word);
+            if (((value >>> shift) & COUNTER_MAX) == COUNTER_MAX
+                    || counters.compareAndSet(word, value, value + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(int index) {
+        int word = index / COUNTERS_PER_WORD;
+        int shift = shift(index);
+        while (true) {
+            long value = counters.get(word);
+            long counter = (value >>> shift) & COUNTER_MAX;
+            // a saturated counter has lost count of its ids
+            if (counter == 0 || counter == COUNTER_MAX
+                    || counters.compareAndSet(word, value, value - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static int shift(int index) {
+        return (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+    }
+
+    // double hashing, g_i(x) = h1(x) + i * h2(x), is as good as k independent hashes
+    private int index(long hash1, long hash2, int i) {
+        return (int) Math.floorMod(hash1 + i * hash2, (long) size);
+    }
+
+    private static long hash(String id) {
+        // FNV-1a over the chars, then mixed, so ids that only differ at the end spread over all bits
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // the MurmurHash3 finalizer
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
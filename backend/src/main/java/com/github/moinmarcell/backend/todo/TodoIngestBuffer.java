@@ -0,0 +1,272 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.ServiceUnavailableException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind buffer for new todos, enabled with {@code todos.ingest.mode=buffered}. Requests only
+ * enqueue, and a single writer inserts the queued todos with one unordered bulk insert per batch, once
+ * a batch is full or the oldest todo waited for the max delay. A todo that fails to insert does not
+ * fail the others of its batch.
+ * <p>
+ * With {@link Durability#FLUSH} a request returns after its batch was written; with
+ * {@link Durability#ENQUEUE} it returns right away and a failed todo is only logged and counted.
+ * A full buffer rejects new todos with 503 instead of queueing without bound.
+ */
+@Component
+@ConditionalOnProperty(name = "todos.ingest.mode", havingValue = "buffered")
+public class TodoIngestBuffer implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(TodoIngestBuffer.class);
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    public enum Durability {
+        ENQUEUE,
+        FLUSH
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final TodoSequence todoSequence;
+    private final TodoCache todoCache;
+    private final TodoStatsService todoStatsService;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Durability durability;
+    private final Duration flushTimeout;
+    private final Queue<PendingTodo> queue = new ConcurrentLinkedQueue<>();
+    // the queue has no cheap size, so the bound is kept in a separate counter
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // adds share the read lock, stop takes the write lock, so no todo is queued once the writer drains
+    private final ReentrantReadWriteLock runningLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public TodoIngestBuffer(MongoTemplate mongoTemplate,
+                            TodoSequence todoSequence,
+                            TodoCache todoCache,
+                            TodoStatsService todoStatsService,
+                            @Value("${todos.ingest.capacity:10000}") int capacity,
+                            @Value("${todos.ingest.batch-size:500}") int batchSize,
+                            @Value("${todos.ingest.max-delay:10ms}") Duration maxDelay,
+                            @Value("${todos.ingest.durability:FLUSH}") Durability durability,
+                            @Value("${todos.ingest.flush-timeout:5s}") Duration flushTimeout) {
+        // a batch takes one modification number per todo, all in the same millisecond
+        if (batchSize < 1 || batchSize > TodoSequence.MAX_COUNT) {
+            throw new IllegalArgumentException("todos.ingest.batch-size must be between 1 and " + TodoSequence.MAX_COUNT);
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.todoSequence = todoSequence;
+        this.todoCache = todoCache;
+        this.todoStatsService = todoStatsService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.durability = durability;
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Queues a todo whose id is already assigned.
+     */
+    public Todo add(Todo todo) {
+        // the writer numbers its own copy, so the caller never sees the todo change while it is written
+        PendingTodo pendingTodo = new PendingTodo(todo.copy(), durability == Durability.FLUSH ? new CompletableFuture<>() : null);
+        runningLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new ServiceUnavailableException("Todo ingest is shutting down", flushTimeout);
+            }
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                rejected.increment();
+                throw new ServiceUnavailableException("Todo ingest buffer is full", maxDelay);
+            }
+            queue.add(pendingTodo);
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        if (size.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        if (pendingTodo.written() == null) {
+            // readable by id before it is written, the list only shows it after the flush
+            todoCache.put(todo);
+            return todo;
+        }
+        return awaitWrite(pendingTodo.written());
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("todo-ingest-writer").daemon().start(this::runWriter);
+    }
+
+    @Override
+    public synchronized void stop() {
+        runningLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        Thread stoppingWriter = writer;
+        if (stoppingWriter == null) {
+            return;
+        }
+        LockSupport.unpark(stoppingWriter);
+        try {
+            // the writer drains what is left before it exits
+            stoppingWriter.join(flushTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todos.ingest.buffer.size", size, AtomicInteger::get)
+                .description("Todos waiting in the ingest buffer")
+                .register(registry);
+        FunctionCounter.builder("todos.ingest.rejected", rejected, LongAdder::sum)
+                .description("Todos rejected because the ingest buffer was full")
+                .register(registry);
+        FunctionCounter.builder("todos.ingest.written", written, LongAdder::sum)
+                .description("Todos written by the ingest writer")
+                .register(registry);
+        FunctionCounter.builder("todos.ingest.failed", failed, LongAdder::sum)
+                .description("Todos the ingest writer failed to write")
+                .register(registry);
+    }
+
+    private Todo awaitWrite(CompletableFuture<Todo> written) {
+        try {
+            return written.get(flushTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Todo was not written within " + flushTimeout.toMillis() + " ms", maxDelay);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the todo to be written", maxDelay);
+        }
+    }
+
+    private void runWriter() {
+        List<PendingTodo> batch = new ArrayList<>(batchSize);
+        while (running || size.get() > 0) {
+            if (running && size.get() < batchSize) {
+                LockSupport.parkNanos(this, maxDelay.toNanos());
+            }
+            PendingTodo pendingTodo;
+            while (batch.size() < batchSize && (pendingTodo = queue.poll()) != null) {
+                batch.add(pendingTodo);
+            }
+            size.addAndGet(-batch.size());
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingTodo> batch) {
+        List<Todo> todos = batch.stream().map(PendingTodo::todo).toList();
+        RuntimeException[] failures = new RuntimeException[batch.size()];
+        try {
+            todoSequence.write(todos.size(), firstModSeq -> {
+                for (int i = 0; i < todos.size(); i++) {
+                    todos.get(i).setModSeq(firstModSeq + i);
+                }
+                return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class).insert(todos).execute();
+            });
+        } catch (BulkOperationException e) {
+            // unordered, so every todo without a write error was inserted
+            for (BulkWriteError writeError : e.getErrors()) {
+                failures[writeError.getIndex()] = writeError.getCode() == DUPLICATE_KEY_ERROR_CODE
+                        ? new DuplicateKeyException(writeError.getMessage(), e)
+                        : e;
+            }
+        } catch (RuntimeException e) {
+            Arrays.fill(failures, e);
+        }
+        List<Todo> writtenTodos = new ArrayList<>(todos.size());
+        List<String> failedIds = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures[i] == null) {
+                writtenTodos.add(todos.get(i));
+            } else {
+                failedIds.add(todos.get(i).getId());
+                log.error("Failed to write buffered todo {}", todos.get(i).getId(), failures[i]);
+            }
+        }
+        todoCache.putAll(writtenTodos);
+        todoCache.evictAll(failedIds);
+        writtenTodos.forEach(todoStatsService::created);
+        written.add(writtenTodos.size());
+        failed.add(failedIds.size());
+        // completed last, so a request that waited for its todo reads it back from the cache and the stats
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(failures[i]);
+        }
+    }
+
+    private record PendingTodo(Todo todo, CompletableFuture<Todo> written) {
+
+        void complete(RuntimeException failure) {
+            if (written == null) {
+                return;
+            }
+            if (failure == null) {
+                written.complete(todo);
+            } else {
+                written.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Lets one instance at a time run a background job. Each job has a lease document naming the instance
+ * that holds it until it expires; the holder renews it on every run, any other instance takes it over
+ * once it has expired.
+ */
+@Component
+public class TodoJobLease {
+    static final String COLLECTION = "todo_leases";
+
+    private final MongoTemplate mongoTemplate;
+    private final String holder = new ObjectId().toHexString();
+
+    public TodoJobLease(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Takes or renews the lease of {@code job} for {@code duration}, returns {@code false} if another instance holds it.
+     */
+    public boolean acquire(String job, Duration duration) {
+        Instant now = Instant.now();
+        Query available = Query.query(Criteria.where("_id").is(job)
+                .orOperator(Criteria.where("holder").is(holder), Criteria.where("expiresAt").lt(now)));
+        try {
+            // inserts the lease if there is none, fails on the unique _id if another instance holds it
+            mongoTemplate.upsert(available, new Update()
+                    .set("holder", holder)
+                    .set("expiresAt", now.plus(duration)), COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
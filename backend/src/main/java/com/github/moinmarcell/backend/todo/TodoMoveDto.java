@@ -0,0 +1,12 @@
+package com.github.moinmarcell.backend.todo;
+
+import jakarta.validation.constraints.NotNull;
+
+public record TodoMoveDto(
+        @NotNull(message = "Status is required")
+        TodoStatus status,
+        String previousId,
+        String nextId,
+        Long version
+) {
+}
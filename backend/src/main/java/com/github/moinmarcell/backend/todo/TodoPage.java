@@ -0,0 +1,9 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.util.List;
+
+public record TodoPage(
+        List<Todo> todos,
+        String nextCursor
+) {
+}
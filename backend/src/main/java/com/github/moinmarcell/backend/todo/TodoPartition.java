@@ -0,0 +1,33 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Where the todos of one board are stored. Boards without a partition of their own share the
+ * {@code todos} collection; the board-less endpoints, the change feed and the stats only see the
+ * default board in it.
+ */
+public record TodoPartition(String boardId, MongoTemplate mongoTemplate, String collection, boolean shared) {
+
+    /**
+     * Todos stored before boards existed have no board and belong to the default board.
+     */
+    public Criteria boardCriteria() {
+        return defaultBoard() ? defaultBoardCriteria() : Criteria.where("boardId").is(boardId);
+    }
+
+    /**
+     * Whether this is the board the board-less endpoints, the change feed and the stats work on.
+     */
+    public boolean defaultBoard() {
+        return shared && Todo.DEFAULT_BOARD.equals(boardId);
+    }
+
+    /**
+     * The todos of the default board in the shared collection.
+     */
+    public static Criteria defaultBoardCriteria() {
+        return Criteria.where("boardId").in(Todo.DEFAULT_BOARD, null);
+    }
+}
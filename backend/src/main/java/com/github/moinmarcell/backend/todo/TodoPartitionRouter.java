@@ -0,0 +1,21 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.util.List;
+
+/**
+ * Decides which collection, and which database, holds the todos of a board. Provide a bean of this
+ * type to replace the routing configured under {@code todos.boards}.
+ */
+public interface TodoPartitionRouter {
+
+    /**
+     * @throws com.github.moinmarcell.backend.exception.BadRequestException if the board id is not valid
+     */
+    TodoPartition route(String boardId);
+
+    /**
+     * Every collection that holds todos, for background jobs that work on all of them. The shared
+     * collection comes first, as the partition of {@link Todo#DEFAULT_BOARD}.
+     */
+    List<TodoPartition> partitions();
+}
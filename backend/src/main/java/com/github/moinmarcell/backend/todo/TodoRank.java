@@ -0,0 +1,76 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lexicographic rank keys for ordering cards within a column. Keys are base-36 fractions, so a key
+ * strictly between any two others always exists and a move only rewrites the moved card.
+ * <p>
+ * New cards get a key derived from the creation time, which places them at the end of their column
+ * without reading the column first. The clock only moves forward per process, so cards created
+ * in the same millisecond still get distinct keys. Generated keys never end in {@code 0}, so no two keys denote the same fraction.
+ */
+final class TodoRank {
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int TIME_DIGITS = 9;
+    private static final char MIDDLE_DIGIT = DIGITS.charAt(BASE / 2);
+
+    private static final AtomicLong LAST_TIME = new AtomicLong();
+
+    private TodoRank() {
+    }
+
+    static String next() {
+        return initial(LAST_TIME.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis())));
+    }
+
+    static String initial(long epochMillis) {
+        String time = Long.toString(epochMillis, BASE);
+        return "0".repeat(Math.max(0, TIME_DIGITS - time.length())) + time + MIDDLE_DIGIT;
+    }
+
+    /**
+     * Returns a key that sorts after {@code previous} and before {@code next}; either bound may be {@code null}.
+     */
+    static String between(String previous, String next) {
+        if (previous == null && next == null) {
+            return next();
+        }
+        if (next == null) {
+            // stays below the next time-based key, so cards created later still go to the end
+            return previous + MIDDLE_DIGIT;
+        }
+        if (previous != null && previous.compareTo(next) >= 0) {
+            throw new IllegalArgumentException("Rank " + previous + " is not before " + next);
+        }
+        return midpoint(previous == null ? "" : previous, next);
+    }
+
+    private static String midpoint(String lower, String upper) {
+        StringBuilder rank = new StringBuilder();
+        boolean unbounded = false;
+        for (int i = 0; ; i++) {
+            if (!unbounded && i >= lower.length() && i >= upper.length()) {
+                throw new IllegalArgumentException("Ranks " + lower + " and " + upper + " are equal");
+            }
+            int low = i < lower.length() ? digit(lower.charAt(i)) : 0;
+            int high = unbounded ? BASE : (i < upper.length() ? digit(upper.charAt(i)) : 0);
+            int middle = (low + high) / 2;
+            if (middle > low) {
+                return rank.append(DIGITS.charAt(middle)).toString();
+            }
+            rank.append(DIGITS.charAt(low));
+            // adjacent digits leave no room at this position, but everything after the lower digit is free
+            unbounded |= high > low;
+        }
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid rank character " + c);
+        }
+        return digit;
+    }
+}
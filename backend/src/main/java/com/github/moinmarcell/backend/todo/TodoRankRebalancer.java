@@ -0,0 +1,168 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rewrites the rank keys of a column once repeated moves into the same gap made them long.
+ * Runs in the background, so moves themselves always write a single document.
+ * <p>
+ * Runs on one instance at a time, board by board, and reads a column in pages from its last card
+ * upwards. The new keys sort after every key that is still to be rewritten, so the column keeps its
+ * order while it is being rewritten and a rewritten card is never met again. Only the rank and the
+ * change number are written; the version stays, so clients holding a card do not get a conflict.
+ */
+@Component
+public class TodoRankRebalancer {
+    static final int MAX_RANK_LENGTH = 24;
+    static final int BATCH_SIZE = 1000;
+    private static final String JOB = "rank-rebalance";
+    private static final Logger log = LoggerFactory.getLogger(TodoRankRebalancer.class);
+
+    private final TodoPartitionRouter todoPartitionRouter;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoJobLease todoJobLease;
+    private final Duration leaseDuration;
+
+    public TodoRankRebalancer(TodoPartitionRouter todoPartitionRouter, TodoCache todoCache, TodoSequence todoSequence,
+                              TodoJobLease todoJobLease,
+                              @Value("${todos.rank.rebalance-interval:PT5M}") Duration rebalanceInterval) {
+        this.todoPartitionRouter = todoPartitionRouter;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoJobLease = todoJobLease;
+        // outlasts the next run, so the holder keeps the lease as long as it is running
+        this.leaseDuration = rebalanceInterval.multipliedBy(2);
+    }
+
+    @Scheduled(initialDelayString = "${todos.rank.rebalance-interval:PT5M}",
+            fixedDelayString = "${todos.rank.rebalance-interval:PT5M}")
+    public void rebalanceColumns() {
+        if (!todoJobLease.acquire(JOB, leaseDuration)) {
+            return;
+        }
+        for (TodoPartition partition : todoPartitionRouter.partitions()) {
+            for (TodoStatus status : TodoStatus.values()) {
+                for (TodoPartition board : boardsToRebalance(partition, status)) {
+                    int rebalanced = rebalance(board, status);
+                    log.info("Rebalanced ranks of {} todos in column {} of board {} in {}",
+                            rebalanced, status, board.boardId(), board.collection());
+                }
+            }
+        }
+    }
+
+    /**
+     * The boards with a long key in the column. The shared collection holds many boards, a dedicated one only its own.
+     */
+    List<TodoPartition> boardsToRebalance(TodoPartition partition, TodoStatus status) {
+        if (!partition.shared()) {
+            return needsRebalance(partition, status) ? List.of(partition) : List.of();
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(longRanks(status)),
+                Aggregation.group("boardId"));
+        return partition.mongoTemplate().aggregate(aggregation, partition.collection(), Document.class)
+                .getMappedResults().stream()
+                // todos stored before boards existed have no board
+                .map(board -> Objects.requireNonNullElse(board.getString("_id"), Todo.DEFAULT_BOARD))
+                .distinct()
+                .map(boardId -> new TodoPartition(boardId, partition.mongoTemplate(), partition.collection(), true))
+                .toList();
+    }
+
+    boolean needsRebalance(TodoPartition partition, TodoStatus status) {
+        // only looks at the keys of the (boardId, status, rank) index, no documents are fetched
+        Query query = Query.query(partition.boardCriteria()).addCriteria(longRanks(status));
+        query.fields().include("rank").exclude("id");
+        return partition.mongoTemplate().exists(query, Todo.class, partition.collection());
+    }
+
+    int rebalance(TodoPartition board, TodoStatus status) {
+        Query column = Query.query(board.boardCriteria()).addCriteria(Criteria.where("status").is(status));
+        long size = board.mongoTemplate().count(column, Todo.class, board.collection());
+        // fresh time-based keys ending now, so cards created afterwards still sort last
+        long firstRankTime = System.currentTimeMillis() - size;
+        // keys from the lowest new one upwards are already rewritten, or too young to need it
+        Criteria notRewritten = Criteria.where("rank").lt(TodoRank.initial(firstRankTime));
+        int rebalanced = 0;
+        while (rebalanced < size) {
+            Query page = Query.query(board.boardCriteria())
+                    .addCriteria(Criteria.where("status").is(status))
+                    .addCriteria(notRewritten)
+                    .with(Sort.by(Sort.Direction.DESC, "rank", "id"))
+                    .limit((int) Math.min(BATCH_SIZE, size - rebalanced));
+            page.fields().include("rank");
+            List<Todo> todos = board.mongoTemplate().find(page, Todo.class, board.collection());
+            List<RankChange> batch = new ArrayList<>(todos.size());
+            for (Todo todo : todos) {
+                long position = size - 1 - rebalanced - batch.size();
+                batch.add(new RankChange(todo.getId(), todo.getRank(), TodoRank.initial(firstRankTime + position)));
+            }
+            execute(board, batch);
+            rebalanced += batch.size();
+            if (todos.size() < page.getLimit()) {
+                break;
+            }
+            Todo last = todos.getLast();
+            notRewritten = new Criteria().orOperator(
+                    Criteria.where("rank").lt(last.getRank()),
+                    Criteria.where("rank").is(last.getRank()).and("id").lt(last.getId()));
+        }
+        return rebalanced;
+    }
+
+    private static Criteria longRanks(TodoStatus status) {
+        return Criteria.where("status").is(status).and("rank").regex("^.{" + (MAX_RANK_LENGTH + 1) + ",}");
+    }
+
+    private void execute(TodoPartition board, List<RankChange> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!board.defaultBoard()) {
+            // other boards are not part of the change feed or the cache
+            bulkUpdate(board, batch, null);
+        } else {
+            todoSequence.write(batch.size(), firstModSeq -> bulkUpdate(board, batch, firstModSeq));
+            todoCache.evictAll(batch.stream().map(RankChange::id).toList());
+        }
+    }
+
+    private static BulkWriteResult bulkUpdate(TodoPartition board, List<RankChange> batch, Long firstModSeq) {
+        BulkOperations bulkOperations = board.mongoTemplate()
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class, board.collection());
+        for (int i = 0; i < batch.size(); i++) {
+            RankChange change = batch.get(i);
+            // skips cards that were moved while the column was being rewritten
+            Query unchanged = Query.query(Criteria.where("id").is(change.id()).and("rank").is(change.previousRank()));
+            // a new key does not change the card for its holders, so the version stays
+            Update update = new Update().set("rank", change.rank());
+            if (firstModSeq != null) {
+                update.set("modSeq", firstModSeq + i);
+            }
+            bulkOperations.updateOne(unchanged, update);
+        }
+        return bulkOperations.execute();
+    }
+
+    private record RankChange(String id, String previousRank, String rank) {
+    }
+}
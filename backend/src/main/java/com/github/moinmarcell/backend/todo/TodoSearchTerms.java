@@ -0,0 +1,60 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Search terms stored next to the title and description. Every word is stored with all of its
+ * prefixes, so the text index answers prefix queries with plain term lookups, ranked by its own score.
+ */
+final class TodoSearchTerms {
+    static final int MAX_TERM_LENGTH = 20;
+    static final int MAX_QUERY_TERMS = 10;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_TERMS_PER_FIELD = 2000;
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TodoSearchTerms() {
+    }
+
+    static List<String> of(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            int length = Math.min(word.length(), MAX_TERM_LENGTH);
+            for (int end = Math.min(MIN_PREFIX_LENGTH, length); end <= length; end++) {
+                terms.add(word.substring(0, end));
+            }
+            if (terms.size() >= MAX_TERMS_PER_FIELD) {
+                break;
+            }
+        }
+        return List.copyOf(terms);
+    }
+
+    static List<String> forQuery(String query) {
+        List<String> terms = query == null ? List.of() : words(query).stream()
+                .map(word -> word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word)
+                .distinct()
+                .limit(MAX_QUERY_TERMS)
+                .toList();
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Search query must contain at least one word");
+        }
+        return terms;
+    }
+
+    private static List<String> words(String text) {
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+}
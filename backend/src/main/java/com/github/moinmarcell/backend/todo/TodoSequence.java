@@ -0,0 +1,131 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Modification numbers for todo writes, taken without a round trip. A number is a hybrid logical clock:
+ * the wall clock in milliseconds, then the number of this instance, then a counter for the numbers taken
+ * in the same millisecond. The instance number is taken once from a counter document, so numbers are
+ * unique across instances as long as fewer than 1024 instances start while one is running.
+ * <p>
+ * Numbers are taken before the write is applied, so a write can commit after one with a larger number, on
+ * this or any other instance. The {@link #watermark()} therefore trails the clock by a safety lag: a change
+ * feed read up to it only misses a write that took longer than the lag to commit, or that was numbered by an
+ * instance whose clock is behind by more than the lag.
+ */
+@Component
+public class TodoSequence {
+    static final String COLLECTION = "todo_sequences";
+    private static final String COUNTER_ID = "todos";
+    // 2024-01-01T00:00:00Z, 41 bits of milliseconds since then last until 2093
+    private static final long EPOCH = 1_704_067_200_000L;
+    private static final int COUNTER_BITS = 12;
+    private static final int INSTANCE_BITS = 10;
+    static final int MAX_COUNT = 1 << COUNTER_BITS;
+
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+    private final long safetyLagMillis;
+    // milliseconds and counter of the next free number, without the instance bits
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong lastWatermark = new AtomicLong();
+    private final ReentrantLock instanceLock = new ReentrantLock();
+    private volatile long instance = -1;
+
+    public TodoSequence(MongoTemplate mongoTemplate,
+                        @Value("${todos.changes.safety-lag:5s}") Duration safetyLag) {
+        this(mongoTemplate, safetyLag, Clock.systemUTC());
+    }
+
+    TodoSequence(MongoTemplate mongoTemplate, Duration safetyLag, Clock clock) {
+        this.mongoTemplate = mongoTemplate;
+        this.safetyLagMillis = safetyLag.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Runs a write with {@code count} consecutive numbers, starting at the one passed to {@code write}.
+     */
+    public <T> T write(int count, LongFunction<T> write) {
+        return write.apply(allocate(count));
+    }
+
+    public long allocate(int count) {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("A write takes 1 to " + MAX_COUNT + " numbers, not " + count);
+        }
+        long instanceBits = instance() << COUNTER_BITS;
+        while (true) {
+            long previous = next.get();
+            long first = Math.max(previous, (clock.millis() - EPOCH) << COUNTER_BITS);
+            if ((first & (MAX_COUNT - 1)) + count > MAX_COUNT) {
+                // the numbers of one write share their millisecond, so they stay consecutive
+                first = ((first >>> COUNTER_BITS) + 1) << COUNTER_BITS;
+            }
+            if (next.compareAndSet(previous, first + count)) {
+                long millis = first >>> COUNTER_BITS;
+                return (millis << (INSTANCE_BITS + COUNTER_BITS)) | instanceBits | (first & (MAX_COUNT - 1));
+            }
+        }
+    }
+
+    /**
+     * Highest number below which every write is assumed to have committed: the largest number any instance
+     * could have taken a safety lag ago.
+     */
+    public long watermark() {
+        long millis = clock.millis() - EPOCH - safetyLagMillis;
+        if (millis < 0) {
+            return lastWatermark.get();
+        }
+        long watermark = ((millis + 1) << (INSTANCE_BITS + COUNTER_BITS)) - 1;
+        return lastWatermark.accumulateAndGet(watermark, Math::max);
+    }
+
+    public long compactedThrough() {
+        Document counter = mongoTemplate.findOne(counterQuery(), Document.class, COLLECTION);
+        Number value = counter == null ? null : counter.get("compacted", Number.class);
+        return value == null ? 0 : value.longValue();
+    }
+
+    public void compactThrough(long modSeq) {
+        mongoTemplate.upsert(counterQuery(), new Update().max("compacted", modSeq), COLLECTION);
+    }
+
+    // taken on the first write instead of at startup, so the application starts without a database;
+    // a lock instead of synchronized, a virtual thread waiting for Mongo would pin its carrier otherwise
+    private long instance() {
+        long current = instance;
+        if (current >= 0) {
+            return current;
+        }
+        instanceLock.lock();
+        try {
+            if (instance < 0) {
+                Document counter = mongoTemplate.findAndModify(counterQuery(), new Update().inc("instances", 1),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+                instance = counter.get("instances", Number.class).longValue() & ((1 << INSTANCE_BITS) - 1);
+            }
+            return instance;
+        } finally {
+            instanceLock.unlock();
+        }
+    }
+
+    static Query counterQuery() {
+        return Query.query(Criteria.where("_id").is(COUNTER_ID));
+    }
+}
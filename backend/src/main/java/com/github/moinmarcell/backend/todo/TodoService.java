@@ -1,43 +1,374 @@
 package com.github.moinmarcell.backend.todo;
 
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.github.moinmarcell.backend.exception.TodoNotFoundException;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TodoService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_SEARCH_RESULTS = 1000;
+
     private final TodoRepository todoRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TodoCache todoCache;
+    private final TodoSequence todoSequence;
+    private final TodoChangesService todoChangesService;
+    private final TodoStatsService todoStatsService;
+    private final TodoIngestBuffer todoIngestBuffer;
+    private final TodoIdFilter todoIdFilter;
 
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository, MongoTemplate mongoTemplate, TodoCache todoCache,
+                       TodoSequence todoSequence, TodoChangesService todoChangesService,
+                       TodoStatsService todoStatsService, @Nullable TodoIngestBuffer todoIngestBuffer,
+                       @Nullable TodoIdFilter todoIdFilter) {
         this.todoRepository = todoRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.todoCache = todoCache;
+        this.todoSequence = todoSequence;
+        this.todoChangesService = todoChangesService;
+        this.todoStatsService = todoStatsService;
+        this.todoIngestBuffer = todoIngestBuffer;
+        this.todoIdFilter = todoIdFilter;
+    }
+
+    public TodoPage getTodos(String cursor, Integer limit) {
+        return getTodos(cursor, limit, null, getTodosSnapshot());
+    }
+
+    /**
+     * Returns a page of the collection at {@code snapshot}, taken from {@link #getTodosSnapshot()} by the caller
+     * that also tags the response with it.
+     */
+    public TodoPage getTodos(String cursor, Integer limit, String fields, @Nullable String snapshot) {
+        TodoFields todoFields = TodoFields.parse(fields);
+        int pageSize = pageSize(limit);
+        if (todoFields == null) {
+            return todoCache.getPage(snapshot, cursor, pageSize, () -> loadPage(cursor, pageSize, null));
+        }
+        // projected pages are not cached, the cache only holds whole todos
+        return loadPage(cursor, pageSize, todoFields);
+    }
+
+    public String getTodosSnapshot() {
+        return todoChangesService.snapshot();
+    }
+
+    private TodoPage loadPage(String cursor, int pageSize, TodoFields todoFields) {
+        Criteria criteria = TodoPartition.defaultBoardCriteria();
+        if (cursor != null) {
+            criteria = criteria.and("id").gt(TodoCursor.decode(cursor));
+        }
+        Query query = Query.query(criteria).with(Sort.by("id")).limit(pageSize + 1);
+        if (todoFields != null) {
+            todoFields.applyTo(query);
+        }
+        List<Todo> todos = mongoTemplate.find(query, Todo.class);
+        if (todoFields != null) {
+            todos = todos.stream().map(todoFields::project).toList();
+        }
+        if (todos.size() <= pageSize) {
+            return new TodoPage(todos, null);
+        }
+        List<Todo> page = todos.subList(0, pageSize);
+        return new TodoPage(page, TodoCursor.encode(page.getLast().getId()));
     }
 
-    public List<Todo> getTodos() {
-        return todoRepository.findAll();
+    /**
+     * Ranks todos by text score over title and description, matching whole words and word prefixes.
+     * Results are paged by offset, which stays cheap because only the first {@value #MAX_SEARCH_RESULTS} are reachable.
+     */
+    public TodoPage searchTodos(String query, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int offset = cursor == null ? 0 : searchOffset(cursor);
+        TextCriteria criteria = TextCriteria.forLanguage("none")
+                .matchingAny(TodoSearchTerms.forQuery(query).toArray(String[]::new));
+        Query textQuery = TextQuery.queryText(criteria)
+                .sortByScore()
+                .addCriteria(TodoPartition.defaultBoardCriteria())
+                .with(Sort.by("id"))
+                .skip(offset)
+                .limit(Math.min(pageSize, MAX_SEARCH_RESULTS - offset) + 1);
+        textQuery.fields().exclude("titleTerms", "descriptionTerms");
+        List<Todo> todos = mongoTemplate.find(textQuery, Todo.class);
+        int nextOffset = offset + pageSize;
+        if (todos.size() <= pageSize || nextOffset >= MAX_SEARCH_RESULTS) {
+            return new TodoPage(todos.subList(0, Math.min(todos.size(), pageSize)), null);
+        }
+        return new TodoPage(todos.subList(0, pageSize), TodoCursor.encode(String.valueOf(nextOffset)));
+    }
+
+    private static int searchOffset(String cursor) {
+        try {
+            int offset = Integer.parseInt(TodoCursor.decode(cursor));
+            if (offset < 0 || offset >= MAX_SEARCH_RESULTS) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
     }
 
     public Todo getTodo(String id) {
-        return todoRepository
-                .findById(id)
-                .orElseThrow(() -> new NoSuchElementException("No todo with id " + id));
+        requireMightExist(id);
+        // the cache holds todos of the default board only, other boards are not found here
+        Todo todo = todoCache.getTodo(id, key -> todoRepository.findById(key).filter(Todo::onDefaultBoard).orElse(null));
+        if (todo == null) {
+            throw notFound(id);
+        }
+        return todo;
+    }
+
+    public Todo getTodo(String id, String fields) {
+        TodoFields todoFields = TodoFields.parse(fields);
+        if (todoFields == null) {
+            return getTodo(id);
+        }
+        requireMightExist(id);
+        Todo cachedTodo = todoCache.getIfPresent(id);
+        if (cachedTodo != null) {
+            return todoFields.project(cachedTodo);
+        }
+        Query query = byId(id);
+        todoFields.applyTo(query);
+        Todo todo = mongoTemplate.findOne(query, Todo.class);
+        if (todo == null) {
+            throw notFound(id);
+        }
+        return todoFields.project(todo);
     }
 
     public Todo addTodo(TodoDto todoDto) {
         Todo todo = new Todo(todoDto);
-        return todoRepository.save(todo);
+        // ObjectId hex strings sort by creation time, which keeps the _id keyset order stable
+        todo.setId(new ObjectId().toHexString());
+        if (todoIdFilter != null) {
+            // added before the insert, a todo that fails to insert is only a false positive
+            todoIdFilter.add(todo.getId());
+        }
+        if (todoIngestBuffer != null) {
+            // the buffer may answer before the insert, so the version the insert would assign is set up front
+            todo.setVersion(0L);
+            return todoIngestBuffer.add(todo);
+        }
+        Todo savedTodo = todoSequence.write(1, modSeq -> {
+            todo.setModSeq(modSeq);
+            return todoRepository.insert(todo);
+        });
+        todoStatsService.created(savedTodo);
+        todoCache.put(savedTodo);
+        return savedTodo;
     }
 
     public Todo updateTodo(String id, TodoDto todoDto) {
-        Todo todo = getTodo(id);
-        todo.setTitle(todoDto.title());
-        todo.setDescription(todoDto.description());
-        return todoRepository.save(todo);
+        return modifyTodo(id, todoDto.version(), new Update()
+                .set("title", todoDto.title())
+                .set("description", todoDto.description())
+                .set("titleTerms", TodoSearchTerms.of(todoDto.title()))
+                .set("descriptionTerms", TodoSearchTerms.of(todoDto.description())));
+    }
+
+    public Todo moveTodo(String id, TodoMoveDto todoMoveDto) {
+        requireMightExist(id);
+        String rank = rankBetween(id, todoMoveDto);
+        Query query = versioned(id, todoMoveDto.version());
+        LocalDate today = LocalDate.now();
+        // returns the todo before the update, the stats need the column it was moved out of
+        Todo movedTodo = todoSequence.write(1, modSeq -> {
+            Todo previousTodo = mongoTemplate.findAndModify(query, moveUpdate(todoMoveDto, rank, today)
+                    .set("modSeq", modSeq)
+                    .inc("version", 1), FindAndModifyOptions.options().returnNew(false), Todo.class);
+            if (previousTodo == null) {
+                return null;
+            }
+            todoStatsService.moved(previousTodo.getStatus(), todoMoveDto.status());
+            return moved(previousTodo, todoMoveDto, rank, today, modSeq);
+        });
+        if (movedTodo == null) {
+            throw notFoundOrConflict(id, todoMoveDto.version());
+        }
+        todoCache.put(movedTodo);
+        return movedTodo;
+    }
+
+    private Todo modifyTodo(String id, Long expectedVersion, Update update) {
+        requireMightExist(id);
+        Query query = versioned(id, expectedVersion);
+        Todo modifiedTodo = todoSequence.write(1, modSeq -> mongoTemplate.findAndModify(query,
+                update.set("modSeq", modSeq).inc("version", 1), FindAndModifyOptions.options().returnNew(true), Todo.class));
+        if (modifiedTodo == null) {
+            throw notFoundOrConflict(id, expectedVersion);
+        }
+        todoCache.put(modifiedTodo);
+        return modifiedTodo;
     }
 
     public String deleteTodo(String id) {
-        Todo todo = getTodo(id);
-        todoRepository.delete(todo);
+        return deleteTodo(id, null);
+    }
+
+    public String deleteTodo(String id, Long expectedVersion) {
+        requireMightExist(id);
+        Query query = versioned(id, expectedVersion);
+        boolean deleted = todoSequence.write(1, modSeq -> {
+            // the removed document is returned for the stats, its column and creation day are not known otherwise
+            Todo deletedTodo = mongoTemplate.findAndRemove(query, Todo.class);
+            if (deletedTodo == null) {
+                return false;
+            }
+            todoChangesService.recordDeletions(List.of(new TodoTombstone(id, modSeq, Instant.now())));
+            todoStatsService.deleted(deletedTodo);
+            return true;
+        });
+        if (!deleted) {
+            throw notFoundOrConflict(id, expectedVersion);
+        }
+        // findAndRemove returned this todo, so no other delete removes it from the filter again
+        if (todoIdFilter != null) {
+            todoIdFilter.remove(id);
+        }
+        todoCache.evict(id);
         return "Deleted todo with id " + id;
     }
+
+    // only runs after a conditional write matched nothing, so the happy path stays a single round trip
+    private RuntimeException notFoundOrConflict(String id, Long expectedVersion) {
+        if (expectedVersion != null && mongoTemplate.exists(byId(id), Todo.class)) {
+            return new OptimisticLockingFailureException("Todo with id " + id + " is no longer at version " + expectedVersion);
+        }
+        return notFound(id);
+    }
+
+    // answers ids the filter has never seen without a round trip and without a stack trace
+    private void requireMightExist(String id) {
+        if (todoIdFilter != null && !todoIdFilter.mightContain(id)) {
+            throw new TodoNotFoundException("No todo with id " + id);
+        }
+    }
+
+    private TodoNotFoundException notFound(String id) {
+        if (todoIdFilter != null) {
+            todoIdFilter.notFound();
+        }
+        return new TodoNotFoundException("No todo with id " + id);
+    }
+
+    private String rankBetween(String id, TodoMoveDto todoMoveDto) {
+        List<String> neighborIds = neighborIds(id, todoMoveDto);
+        List<Todo> neighbors = neighborIds.isEmpty() ? List.of() : mongoTemplate.find(
+                neighborQuery(neighborIds).addCriteria(TodoPartition.defaultBoardCriteria()), Todo.class);
+        return rankBetween(id, todoMoveDto, neighbors);
+    }
+
+    /**
+     * A todo moved into the done column records the day, which the archive measures from; one reordered
+     * within the column keeps it, since {@code $min} only sets it while there is none.
+     */
+    static Update moveUpdate(TodoMoveDto todoMoveDto, String rank, LocalDate today) {
+        Update update = new Update()
+                .set("status", todoMoveDto.status())
+                .set("rank", rank);
+        return todoMoveDto.status() == TodoStatus.DONE ? update.min("doneAt", today) : update.unset("doneAt");
+    }
+
+    /**
+     * Applies the move to the todo as it was before the update.
+     */
+    static Todo moved(Todo previousTodo, TodoMoveDto todoMoveDto, String rank, LocalDate today, long modSeq) {
+        if (todoMoveDto.status() != TodoStatus.DONE) {
+            previousTodo.setDoneAt(null);
+        } else if (previousTodo.getDoneAt() == null) {
+            previousTodo.setDoneAt(today);
+        }
+        previousTodo.setStatus(todoMoveDto.status());
+        previousTodo.setRank(rank);
+        previousTodo.setModSeq(modSeq);
+        previousTodo.setVersion(previousTodo.getVersion() == null ? 1 : previousTodo.getVersion() + 1);
+        return previousTodo;
+    }
+
+    static List<String> neighborIds(String id, TodoMoveDto todoMoveDto) {
+        List<String> neighborIds = Stream.of(todoMoveDto.previousId(), todoMoveDto.nextId())
+                .filter(Objects::nonNull)
+                .toList();
+        if (neighborIds.contains(id)) {
+            throw new BadRequestException("Todo cannot be moved next to itself");
+        }
+        return neighborIds;
+    }
+
+    static Query neighborQuery(List<String> neighborIds) {
+        Query query = Query.query(Criteria.where("id").in(neighborIds));
+        query.fields().include("status", "rank");
+        return query;
+    }
+
+    static String rankBetween(String id, TodoMoveDto todoMoveDto, List<Todo> neighborTodos) {
+        Map<String, Todo> neighbors = neighborTodos.stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        String previousRank = neighborRank(neighbors, todoMoveDto.previousId(), todoMoveDto.status());
+        String nextRank = neighborRank(neighbors, todoMoveDto.nextId(), todoMoveDto.status());
+        try {
+            return TodoRank.between(previousRank, nextRank);
+        } catch (IllegalArgumentException e) {
+            // the neighbors were reordered since the client loaded the column
+            throw new OptimisticLockingFailureException("Neighbors of todo with id " + id + " have moved", e);
+        }
+    }
+
+    private static String neighborRank(Map<String, Todo> neighbors, String neighborId, TodoStatus status) {
+        if (neighborId == null) {
+            return null;
+        }
+        Todo neighbor = neighbors.get(neighborId);
+        if (neighbor == null || neighbor.getStatus() != status || neighbor.getRank() == null) {
+            throw new OptimisticLockingFailureException("No todo with id " + neighborId + " in column " + status);
+        }
+        return neighbor.getRank();
+    }
+
+    // the board-less endpoints only see the default board
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("id").is(id)).addCriteria(TodoPartition.defaultBoardCriteria());
+    }
+
+    private static Query versioned(String id, Long expectedVersion) {
+        Query query = byId(id);
+        if (expectedVersion != null) {
+            query.addCriteria(Criteria.where("version").is(expectedVersion));
+        }
+        return query;
+    }
+
+    static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 }
@@ -0,0 +1,11 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Live todo counts, in total, per column and per creation day.
+ */
+public record TodoStats(long total, Map<TodoStatus, Long> columns, SortedMap<LocalDate, Long> createdPerDay) {
+}
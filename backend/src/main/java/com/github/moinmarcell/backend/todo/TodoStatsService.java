@@ -0,0 +1,278 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the todo counts of the default board in a single document of {@value #COLLECTION}, so reading
+ * them does not depend on the collection size. Writes only bump in-memory counters, which are flushed as
+ * one {@code $inc} per interval; the reconciliation recounts the board to correct drift, e.g. from a
+ * crash before a flush.
+ * <p>
+ * A recount only matches the stored counts for the writes every instance has flushed, so it is fenced by
+ * the watermark: a write numbered below it committed more than the safety lag ago, which is longer than the
+ * flush interval, so it is in the stored counts. The writes numbered above it may be in flight; they are
+ * counted as the todos and tombstones that carry such a number, and only the part of a difference larger
+ * than their count is corrected. Drift is thus corrected under a steady write load as well, in full once
+ * the load is lower than the drift. The correction is applied as an {@code $inc}, so counts flushed
+ * meanwhile are kept.
+ */
+@Service
+public class TodoStatsService {
+    static final String COLLECTION = "todo_stats";
+    private static final String STATS_ID = "todos";
+    private static final String RECONCILE_JOB = "stats-reconcile";
+    private static final Logger log = LoggerFactory.getLogger(TodoStatsService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TodoSequence todoSequence;
+    private final TodoJobLease todoJobLease;
+    private final Duration reconcileInterval;
+    // a lock instead of synchronized, a virtual thread waiting for Mongo would pin its carrier otherwise
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Delta total = new Delta();
+    private final Map<TodoStatus, Delta> columns = new EnumMap<>(TodoStatus.class);
+    private final Map<LocalDate, Delta> createdPerDay = new ConcurrentHashMap<>();
+
+    public TodoStatsService(MongoTemplate mongoTemplate, TodoSequence todoSequence, TodoJobLease todoJobLease,
+                            @Value("${todos.stats.reconcile-interval:PT1H}") Duration reconcileInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.todoSequence = todoSequence;
+        this.todoJobLease = todoJobLease;
+        this.reconcileInterval = reconcileInterval;
+        for (TodoStatus status : TodoStatus.values()) {
+            columns.put(status, new Delta());
+        }
+    }
+
+    public void created(Todo todo) {
+        count(todo, 1);
+    }
+
+    public void deleted(Todo todo) {
+        count(todo, -1);
+    }
+
+    public void moved(TodoStatus from, TodoStatus to) {
+        if (from != to) {
+            column(from).add(-1);
+            column(to).add(1);
+        }
+    }
+
+    /**
+     * The stored counts plus what this instance has not flushed yet. Read without waiting for a flush,
+     * so the counts of a flush in progress may be missing for a moment.
+     */
+    public TodoStats getStats() {
+        Document stored = mongoTemplate.findById(STATS_ID, Document.class, COLLECTION);
+        Document storedColumns = stored == null ? null : stored.get("columns", Document.class);
+        Document storedDays = stored == null ? null : stored.get("createdPerDay", Document.class);
+        Map<TodoStatus, Long> columnCounts = new EnumMap<>(TodoStatus.class);
+        for (TodoStatus status : TodoStatus.values()) {
+            columnCounts.put(status, number(storedColumns, status.name()) + columns.get(status).pending());
+        }
+        SortedMap<LocalDate, Long> dayCounts = new TreeMap<>();
+        if (storedDays != null) {
+            storedDays.forEach((day, count) -> dayCounts.put(LocalDate.parse(day), ((Number) count).longValue()));
+        }
+        createdPerDay.forEach((day, count) -> dayCounts.merge(day, count.pending(), Long::sum));
+        dayCounts.values().removeIf(count -> count == 0);
+        return new TodoStats(number(stored, "total") + total.pending(), columnCounts, dayCounts);
+    }
+
+    @Scheduled(fixedDelayString = "${todos.stats.flush-interval:1s}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushDeltas();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushDeltas() {
+        Update update = new Update();
+        long totalDelta = total.take();
+        Map<TodoStatus, Long> columnDeltas = new EnumMap<>(TodoStatus.class);
+        Map<LocalDate, Long> dayDeltas = new TreeMap<>();
+        columns.forEach((status, count) -> columnDeltas.put(status, count.take()));
+        createdPerDay.forEach((day, count) -> dayDeltas.put(day, count.take()));
+        if (totalDelta != 0) {
+            update.inc("total", totalDelta);
+        }
+        columnDeltas.forEach((status, delta) -> {
+            if (delta != 0) {
+                update.inc("columns." + status.name(), delta);
+            }
+        });
+        dayDeltas.forEach((day, delta) -> {
+            if (delta != 0) {
+                update.inc("createdPerDay." + day, delta);
+            }
+        });
+        if (update.getUpdateObject().isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(statsQuery(), update, COLLECTION);
+        } catch (RuntimeException e) {
+            // handed back to the counters, so the next flush retries them
+            total.giveBack(totalDelta);
+            columnDeltas.forEach((status, delta) -> columns.get(status).giveBack(delta));
+            dayDeltas.forEach((day, delta) -> createdPerDay.get(day).giveBack(delta));
+            throw e;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${todos.stats.reconcile-interval:PT1H}",
+            fixedDelayString = "${todos.stats.reconcile-interval:PT1H}")
+    public void reconcile() {
+        // two instances correcting the same drift would apply it twice
+        if (!todoJobLease.acquire(RECONCILE_JOB, reconcileInterval)) {
+            return;
+        }
+        flush();
+        long fence = todoSequence.watermark();
+        Document stored = mongoTemplate.findById(STATS_ID, Document.class, COLLECTION);
+        long totalCount = mongoTemplate.count(Query.query(TodoPartition.defaultBoardCriteria()), Todo.class);
+        Document columnCounts = groupCounts("status", TodoStatus.TODO.name());
+        Document dayCounts = groupCounts("createdAt", null);
+        // counted last, so it includes every write that committed while the stats were read
+        long inFlight = countWrittenAfter(fence);
+        Update correction = new Update();
+        correct(correction, "total", totalCount, number(stored, "total"), inFlight);
+        correct(correction, "columns.", columnCounts, stored == null ? null : stored.get("columns", Document.class), inFlight);
+        correct(correction, "createdPerDay.", dayCounts, stored == null ? null : stored.get("createdPerDay", Document.class), inFlight);
+        if (correction.getUpdateObject().isEmpty()) {
+            return;
+        }
+        mongoTemplate.upsert(statsQuery(), correction, COLLECTION);
+        log.info("Corrected todo stats by {}", correction.getUpdateObject());
+    }
+
+    // tombstones are only written for the default board, so they need no such criteria
+    private long countWrittenAfter(long fence) {
+        Criteria writtenAfter = Criteria.where("modSeq").gt(fence);
+        return mongoTemplate.count(Query.query(TodoPartition.defaultBoardCriteria()).addCriteria(writtenAfter), Todo.class)
+                + mongoTemplate.count(Query.query(writtenAfter), TodoTombstone.class);
+    }
+
+    private static void correct(Update correction, String prefix, Document counts, Document stored, long inFlight) {
+        Set<String> keys = new HashSet<>(counts.keySet());
+        if (stored != null) {
+            keys.addAll(stored.keySet());
+        }
+        for (String key : keys) {
+            correct(correction, prefix + key, number(counts, key), number(stored, key), inFlight);
+        }
+    }
+
+    private static void correct(Update correction, String field, long count, long stored, long inFlight) {
+        long difference = count - stored;
+        long drift = Long.signum(difference) * Math.max(0, Math.abs(difference) - inFlight);
+        if (drift != 0) {
+            correction.inc(field, drift);
+        }
+    }
+
+    private Document groupCounts(String field, String missingKey) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(TodoPartition.defaultBoardCriteria()),
+                Aggregation.group(field).count().as("count"));
+        Document counts = new Document();
+        for (Document group : mongoTemplate.aggregate(aggregation, Todo.class, Document.class)) {
+            String key = key(group.get("_id"), missingKey);
+            if (key != null) {
+                counts.merge(key, group.get("count", Number.class).longValue(), (a, b) -> (Long) a + (Long) b);
+            }
+        }
+        return counts;
+    }
+
+    private static String key(Object value, String missingKey) {
+        if (value == null) {
+            return missingKey;
+        }
+        // a LocalDate is stored as midnight in the default time zone
+        return value instanceof Date date ? LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString() : value.toString();
+    }
+
+    private void count(Todo todo, int delta) {
+        if (!todo.onDefaultBoard()) {
+            return;
+        }
+        total.add(delta);
+        column(todo.getStatus()).add(delta);
+        if (todo.getCreatedAt() != null) {
+            createdPerDay.computeIfAbsent(todo.getCreatedAt(), day -> new Delta()).add(delta);
+        }
+    }
+
+    private Delta column(TodoStatus status) {
+        // documents written before statuses existed count as TODO, like the board does
+        return columns.get(status == null ? TodoStatus.TODO : status);
+    }
+
+    private static long number(Document document, String key) {
+        if (document == null || !(document.get(key) instanceof Number number)) {
+            return 0;
+        }
+        return number.longValue();
+    }
+
+    private static Query statsQuery() {
+        return Query.query(Criteria.where("_id").is(STATS_ID));
+    }
+
+    /**
+     * A counter that is never reset, only the flushed part is tracked, so no concurrent increment is lost.
+     */
+    private static final class Delta {
+        private final LongAdder count = new LongAdder();
+        private volatile long flushed;
+
+        void add(long delta) {
+            count.add(delta);
+        }
+
+        long pending() {
+            return count.sum() - flushed;
+        }
+
+        // only called under the flush lock
+        long take() {
+            long sum = count.sum();
+            long delta = sum - flushed;
+            flushed = sum;
+            return delta;
+        }
+
+        void giveBack(long delta) {
+            flushed -= delta;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.moinmarcell.backend.todo;
+
+public enum TodoStatus {
+    TODO,
+    IN_PROGRESS,
+    DONE
+}
@@ -0,0 +1,11 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "todo_tombstones")
+public record TodoTombstone(@Id String id, @Indexed long modSeq, Instant deletedAt) {
+}
@@ -0,0 +1,118 @@
+package com.github.moinmarcell.backend.board;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.moinmarcell.backend.exception.CustomErrorMessage;
+import com.github.moinmarcell.backend.todo.Todo;
+import com.github.moinmarcell.backend.todo.TodoDto;
+import com.github.moinmarcell.backend.todo.TodoMoveDto;
+import com.github.moinmarcell.backend.todo.TodoStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BoardControllerTest {
+
+    private static final String BASE_URI_BOARD = "/api/board";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("getBoard - should return empty columns")
+    void getBoard_shouldReturnEmptyColumns() throws Exception {
+        Board board = getBoard(null);
+        assertEquals(List.of(TodoStatus.values()), board.columns().stream().map(BoardColumn::status).toList());
+        board.columns().forEach(column -> assertEquals(0, column.count()));
+    }
+
+    @Test
+    @DisplayName("getBoard - should return cards grouped by column in rank order with counts and column limit")
+    void getBoard_shouldReturnCardsGroupedByColumnInRankOrder() throws Exception {
+        Todo first = saveTodo(new TodoDto("first", "test"));
+        Todo second = saveTodo(new TodoDto("second", "test"));
+        Todo third = saveTodo(new TodoDto("third", "test"));
+        moveTodo(third, new TodoMoveDto(TodoStatus.TODO, null, first.getId(), null));
+        moveTodo(second, new TodoMoveDto(TodoStatus.DONE, null, null, null));
+
+        Board board = getBoard(1);
+
+        BoardColumn todoColumn = board.columns().get(0);
+        assertEquals(TodoStatus.TODO, todoColumn.status());
+        assertEquals(2, todoColumn.count());
+        assertEquals(List.of(third.getId()), todoColumn.cards().stream().map(BoardCard::id).toList());
+        assertEquals("third", todoColumn.cards().getFirst().title());
+        assertEquals(0, board.columns().get(1).count());
+        BoardColumn doneColumn = board.columns().get(2);
+        assertEquals(1, doneColumn.count());
+        assertEquals(second.getId(), doneColumn.cards().getFirst().id());
+        assertEquals(second.getVersion() + 1, doneColumn.cards().getFirst().version());
+    }
+
+    @Test
+    @DisplayName("getBoard - should return 304, when etag matches and nothing changed")
+    void getBoard_shouldReturn304WhenETagMatchesAndNothingChanged() throws Exception {
+        String eTag = mockMvc.perform(get(BASE_URI_BOARD))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BASE_URI_BOARD).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        saveTodo(new TodoDto("test", "test"));
+        mockMvc.perform(get(BASE_URI_BOARD).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("getBoard - should return 400 and error message, when limit is less than 1")
+    void getBoard_shouldReturn400AndErrorMessageWhenLimitIsLessThan1() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URI_BOARD).param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(result.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Bad request: Limit must be at least 1", errorMessage.message());
+    }
+
+    private Board getBoard(Integer limit) throws Exception {
+        MvcResult result = mockMvc.perform(limit == null ? get(BASE_URI_BOARD) : get(BASE_URI_BOARD).param("limit", limit.toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), Board.class);
+    }
+
+    private Todo saveTodo(TodoDto todoDto) throws Exception {
+        MvcResult saveTodoResult = mockMvc.perform(post("/api/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(saveTodoResult.getResponse().getContentAsString(), Todo.class);
+    }
+
+    private void moveTodo(Todo todo, TodoMoveDto todoMoveDto) throws Exception {
+        mockMvc.perform(put("/api/todos/" + todo.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoMoveDto)))
+                .andExpect(status().isOk());
+    }
+}
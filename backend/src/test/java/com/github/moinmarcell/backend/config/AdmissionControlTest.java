@@ -0,0 +1,79 @@
+package com.github.moinmarcell.backend.config;
+
+import com.github.moinmarcell.backend.exception.ServiceUnavailableException;
+import com.github.moinmarcell.backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    @DisplayName("admit - should throw 429 exception, when a client is over its rate")
+    void admit_shouldThrowTooManyRequestsWhenClientIsOverItsRate() {
+        AdmissionControl admissionControl = admissionControl(100, 1, 10);
+
+        admissionControl.admit("client", true).release();
+
+        assertThrows(TooManyRequestsException.class, () -> admissionControl.admit("client", true));
+        admissionControl.admit("other", true).release();
+    }
+
+    @Test
+    @DisplayName("admit - should not limit clients, when client limits are disabled")
+    void admit_shouldNotLimitClientsWhenClientLimitsAreDisabled() {
+        AdmissionControl admissionControl = new AdmissionControl(1000, 10, 1000, 10, 4, false,
+                1, 1, 1, Duration.ofMillis(50), Duration.ofSeconds(1));
+
+        AdmissionControl.Permit permit = admissionControl.admit("proxy", true);
+        admissionControl.admit("proxy", true).release();
+        permit.release();
+    }
+
+    @Test
+    @DisplayName("admit - should throw 503 exception, when the global concurrency limit is reached")
+    void admit_shouldThrowServiceUnavailableWhenGlobalConcurrencyIsReached() {
+        AdmissionControl admissionControl = admissionControl(1, 100, 10);
+
+        AdmissionControl.Permit permit = admissionControl.admit("first", false);
+
+        assertThrows(ServiceUnavailableException.class, () -> admissionControl.admit("second", false));
+        permit.release();
+        admissionControl.admit("second", false).release();
+    }
+
+    @Test
+    @DisplayName("admit - should keep separate budgets for reads and writes")
+    void admit_shouldKeepSeparateBudgetsForReadsAndWrites() {
+        AdmissionControl admissionControl = admissionControl(1, 100, 10);
+
+        AdmissionControl.Permit read = admissionControl.admit("client", false);
+        AdmissionControl.Permit write = admissionControl.admit("client", true);
+
+        read.release();
+        write.release();
+    }
+
+    @Test
+    @DisplayName("adjustLimits - should lower limits while mongo is slow and raise them once it recovers")
+    void adjustLimits_shouldLowerLimitsWhileSlowAndRaiseThemAfterwards() {
+        AdmissionControl admissionControl = admissionControl(100, 100, 100);
+
+        admissionControl.recordLatency(Duration.ofMillis(200).toNanos());
+        admissionControl.adjustLimits();
+        assertEquals(90, admissionControl.readLimit());
+        assertEquals(90, admissionControl.writeLimit());
+
+        admissionControl.recordLatency(Duration.ofMillis(1).toNanos());
+        admissionControl.adjustLimits();
+        assertEquals(91, admissionControl.readLimit());
+    }
+
+    private static AdmissionControl admissionControl(int maxConcurrency, double clientRate, int clientMaxConcurrency) {
+        return new AdmissionControl(1000, maxConcurrency, 1000, maxConcurrency, 4, true,
+                clientRate, clientRate, clientMaxConcurrency, Duration.ofMillis(50), Duration.ofSeconds(1));
+    }
+}
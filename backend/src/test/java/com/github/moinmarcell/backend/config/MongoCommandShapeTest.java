@@ -0,0 +1,20 @@
+package com.github.moinmarcell.backend.config;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MongoCommandShapeTest {
+
+    @Test
+    @DisplayName("of - should replace values and drop session fields")
+    void of_shouldReplaceValuesAndDropSessionFields() {
+        BsonDocument command = BsonDocument.parse("""
+                {"find": "todos", "filter": {"_id": {"$in": ["a", "b"]}, "title": "secret"},
+                 "limit": 50, "$db": "kanban", "lsid": {"id": 1}}""");
+
+        assertEquals("{find: ?, filter: {_id: {$in: [?]}, title: ?}, limit: ?}", MongoCommandShape.of(command));
+    }
+}
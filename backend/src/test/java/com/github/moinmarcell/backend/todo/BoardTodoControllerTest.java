@@ -0,0 +1,196 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.moinmarcell.backend.exception.CustomErrorMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "todos.boards.dedicated.big.collection=todos_big")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BoardTodoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("getTodos - should only return todos of the board")
+    void getTodos_shouldOnlyReturnTodosOfTheBoard() throws Exception {
+        Todo first = saveTodo("team-a", new TodoDto("first", "test"));
+        saveTodo("team-b", new TodoDto("second", "test"));
+
+        mockMvc.perform(get(boardUri("team-a")))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(first) + "]", true));
+        assertEquals("team-a", first.getBoardId());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return pages linked by next cursor")
+    void getTodos_shouldReturnPagesLinkedByNextCursor() throws Exception {
+        Todo first = saveTodo("team-a", new TodoDto("first", "test"));
+        Todo second = saveTodo("team-a", new TodoDto("second", "test"));
+
+        MvcResult firstPage = mockMvc.perform(get(boardUri("team-a")).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(first) + "]"))
+                .andReturn();
+        String nextCursor = firstPage.getResponse().getHeader(TodoController.NEXT_CURSOR_HEADER);
+        assertNotNull(nextCursor);
+
+        MvcResult secondPage = mockMvc.perform(get(boardUri("team-a")).param("limit", "1").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(second) + "]"))
+                .andReturn();
+        assertNull(secondPage.getResponse().getHeader(TodoController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("getTodos - should include todos created without a board on the default board")
+    void getTodos_shouldIncludeTodosCreatedWithoutABoardOnTheDefaultBoard() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("board-less", "test"))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Todo todo = objectMapper.readValue(result.getResponse().getContentAsString(), Todo.class);
+
+        mockMvc.perform(get(boardUri(Todo.DEFAULT_BOARD)))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(todo) + "]"));
+    }
+
+    @Test
+    @DisplayName("getTodos - should not list todos of other boards without a board")
+    void getTodos_shouldNotListTodosOfOtherBoardsWithoutABoard() throws Exception {
+        Todo todo = saveTodo("team-a", new TodoDto("first", "test"));
+
+        mockMvc.perform(get("/api/todos"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+        mockMvc.perform(get("/api/todos/" + todo.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/board"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"columns\":[{\"count\":0},{\"count\":0},{\"count\":0}]}"));
+    }
+
+    @Test
+    @DisplayName("addTodo - should store todos of a dedicated board in their own collection")
+    void addTodo_shouldStoreTodosOfADedicatedBoardInTheirOwnCollection() throws Exception {
+        Todo todo = saveTodo("big", new TodoDto("big", "test"));
+
+        assertNotNull(mongoTemplate.findById(todo.getId(), Todo.class, "todos_big"));
+        assertNull(mongoTemplate.findById(todo.getId(), Todo.class));
+        mockMvc.perform(get("/api/todos"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+        mockMvc.perform(get(boardUri("big") + "/" + todo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(todo)));
+        assertTrue(mongoTemplate.indexOps("todos_big").getIndexInfo().stream()
+                .anyMatch(index -> index.getName().equals("board_status_rank")));
+    }
+
+    @Test
+    @DisplayName("getTodo - should return 404, when the todo is on another board")
+    void getTodo_shouldReturn404WhenTheTodoIsOnAnotherBoard() throws Exception {
+        Todo todo = saveTodo("team-a", new TodoDto("first", "test"));
+
+        MvcResult result = mockMvc.perform(get(boardUri("team-b") + "/" + todo.getId()))
+                .andExpect(status().isNotFound())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(result.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Element not found: No todo with id " + todo.getId() + " on board team-b", errorMessage.message());
+        mockMvc.perform(delete(boardUri("team-b") + "/" + todo.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 412, when if-match is outdated")
+    void updateTodo_shouldReturn412WhenIfMatchIsOutdated() throws Exception {
+        Todo todo = saveTodo("big", new TodoDto("first", "test"));
+        mockMvc.perform(put(boardUri("big") + "/" + todo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("updated", "test"))))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"title\":\"updated\",\"boardId\":\"big\",\"version\":1}"));
+
+        mockMvc.perform(put(boardUri("big") + "/" + todo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("stale", "test"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("moveTodo - should only accept neighbors on the same board")
+    void moveTodo_shouldOnlyAcceptNeighborsOnTheSameBoard() throws Exception {
+        Todo first = saveTodo("team-a", new TodoDto("first", "test"));
+        Todo second = saveTodo("team-a", new TodoDto("second", "test"));
+        Todo other = saveTodo("team-b", new TodoDto("other", "test"));
+
+        mockMvc.perform(put(boardUri("team-a") + "/" + second.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.TODO, null, first.getId(), null))))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"status\":\"TODO\",\"version\":1}"));
+        mockMvc.perform(put(boardUri("team-a") + "/" + second.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.TODO, null, other.getId(), null))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("deleteTodo - should delete the todo of a dedicated board")
+    void deleteTodo_shouldDeleteTheTodoOfADedicatedBoard() throws Exception {
+        Todo todo = saveTodo("big", new TodoDto("first", "test"));
+
+        mockMvc.perform(delete(boardUri("big") + "/" + todo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Deleted todo with id " + todo.getId()));
+        mockMvc.perform(get(boardUri("big") + "/" + todo.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 400, when the board id is invalid")
+    void getTodos_shouldReturn400WhenTheBoardIdIsInvalid() throws Exception {
+        mockMvc.perform(get(boardUri("no.dots")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static String boardUri(String boardId) {
+        return "/api/boards/" + boardId + "/todos";
+    }
+
+    private Todo saveTodo(String boardId, TodoDto todoDto) throws Exception {
+        MvcResult saveTodoResult = mockMvc.perform(post(boardUri(boardId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(saveTodoResult.getResponse().getContentAsString(), Todo.class);
+    }
+}
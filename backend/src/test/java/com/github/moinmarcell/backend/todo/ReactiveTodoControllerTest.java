@@ -0,0 +1,233 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.CustomErrorMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the contract of {@link TodoControllerTest} against the WebFlux stack of the {@code reactive} profile.
+ */
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ReactiveTodoControllerTest {
+
+    private static final String BASE_URI_TODOS = "/api/todos";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("getTodos - should return empty list")
+    void getTodos_shouldReturnEmptyList() {
+        webTestClient.get().uri(BASE_URI_TODOS)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().json("[]");
+    }
+
+    @Test
+    @DisplayName("getTodos - should return pages linked by next cursor")
+    void getTodos_shouldReturnPagesLinkedByNextCursor() {
+        Todo firstTodo = saveTodo(new TodoDto("first", "test"));
+        Todo secondTodo = saveTodo(new TodoDto("second", "test"));
+
+        EntityExchangeResult<List<Todo>> firstPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(BASE_URI_TODOS).queryParam("limit", 1).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Todo.class).returnResult();
+        assertEquals(List.of(firstTodo), firstPage.getResponseBody());
+        String nextCursor = firstPage.getResponseHeaders().getFirst(TodoController.NEXT_CURSOR_HEADER);
+        assertNotNull(nextCursor);
+
+        EntityExchangeResult<List<Todo>> secondPage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(BASE_URI_TODOS).queryParam("limit", 1).queryParam("cursor", nextCursor).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Todo.class).returnResult();
+        assertEquals(List.of(secondTodo), secondPage.getResponseBody());
+        assertNull(secondPage.getResponseHeaders().getFirst(TodoController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 400 and error message, when limit is less than 1")
+    void getTodos_shouldReturn400AndErrorMessageWhenLimitIsLessThan1() {
+        CustomErrorMessage errorMessage = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(BASE_URI_TODOS).queryParam("limit", 0).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(CustomErrorMessage.class).returnResult().getResponseBody();
+        assertNotNull(errorMessage);
+        assertEquals("Bad request: Limit must be at least 1", errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 304, when etag matches and nothing changed")
+    void getTodos_shouldReturn304WhenETagMatchesAndNothingChanged() {
+        saveTodo(new TodoDto("test", "test"));
+        String eTag = webTestClient.get().uri(BASE_URI_TODOS)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertNotNull(eTag);
+
+        webTestClient.get().uri(BASE_URI_TODOS).header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        saveTodo(new TodoDto("test2", "test"));
+        webTestClient.get().uri(BASE_URI_TODOS).header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("getTodo - should return 200 and found todo, and 304 when etag matches")
+    void getTodo_shouldReturn200AndFoundTodo() {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        webTestClient.get().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + savedTodo.getVersion() + "\"")
+                .expectBody(Todo.class).isEqualTo(savedTodo);
+        webTestClient.get().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + savedTodo.getVersion() + "\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("getTodo - should return 404 and error message, when todo not found")
+    void getTodo_shouldReturn404AndErrorMessageWhenTodoNotFound() {
+        CustomErrorMessage errorMessage = webTestClient.get().uri(BASE_URI_TODOS + "/123")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(CustomErrorMessage.class).returnResult().getResponseBody();
+        assertNotNull(errorMessage);
+        assertEquals("Element not found: No todo with id 123", errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("addTodo - should return 400 and error message, when title is blank")
+    void addTodo_shouldReturn400AndErrorMessageWhenTitleIsBlank() {
+        CustomErrorMessage errorMessage = webTestClient.post().uri(BASE_URI_TODOS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TodoDto(" ", "test"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(CustomErrorMessage.class).returnResult().getResponseBody();
+        assertNotNull(errorMessage);
+        assertTrue(errorMessage.message().startsWith("Bad request: "));
+        assertNotNull(errorMessage.timestamp());
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 200 and updated todo with new etag")
+    void updateTodo_shouldReturn200AndUpdatedTodo() {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        Todo updatedTodo = webTestClient.put().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + savedTodo.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TodoDto("testUpdated", "test"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + (savedTodo.getVersion() + 1) + "\"")
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        assertNotNull(updatedTodo);
+        assertEquals("testUpdated", updatedTodo.getTitle());
+        assertTrue(updatedTodo.getModSeq() > savedTodo.getModSeq());
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 409 and error message, when version is stale")
+    void updateTodo_shouldReturn409AndErrorMessageWhenVersionIsStale() {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+        TodoDto staleUpdate = new TodoDto("testUpdated", "test", savedTodo.getVersion());
+
+        webTestClient.put().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(staleUpdate)
+                .exchange()
+                .expectStatus().isOk();
+        CustomErrorMessage errorMessage = webTestClient.put().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(staleUpdate)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody(CustomErrorMessage.class).returnResult().getResponseBody();
+        assertNotNull(errorMessage);
+        assertEquals("Conflict: Todo with id " + savedTodo.getId() + " is no longer at version " + savedTodo.getVersion(), errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 412, when if-match is stale")
+    void updateTodo_shouldReturn412WhenIfMatchIsStale() {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        webTestClient.put().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + (savedTodo.getVersion() + 1) + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TodoDto("testUpdated", "test"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    @DisplayName("moveTodo - should return 200 and todo ranked between its new neighbors")
+    void moveTodo_shouldReturn200AndTodoRankedBetweenNeighbors() {
+        Todo first = saveTodo(new TodoDto("first", "test"));
+        Todo second = saveTodo(new TodoDto("second", "test"));
+        Todo third = saveTodo(new TodoDto("third", "test"));
+
+        Todo movedTodo = webTestClient.put().uri(BASE_URI_TODOS + "/" + third.getId() + "/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new TodoMoveDto(TodoStatus.TODO, first.getId(), second.getId(), null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+        assertNotNull(movedTodo);
+        assertTrue(first.getRank().compareTo(movedTodo.getRank()) < 0);
+        assertTrue(movedTodo.getRank().compareTo(second.getRank()) < 0);
+    }
+
+    @Test
+    @DisplayName("deleteTodo - should return 200 and success message, then 404")
+    void deleteTodo_shouldReturn200AndSuccessMessage() {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        webTestClient.delete().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Deleted todo with id " + savedTodo.getId());
+        webTestClient.delete().uri(BASE_URI_TODOS + "/" + savedTodo.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private Todo saveTodo(TodoDto todoDto) {
+        return webTestClient.post().uri(BASE_URI_TODOS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(todoDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Todo.class).returnResult().getResponseBody();
+    }
+}
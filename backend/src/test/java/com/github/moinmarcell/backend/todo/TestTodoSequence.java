@@ -0,0 +1,20 @@
+package com.github.moinmarcell.backend.todo;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out modification numbers from memory, for tests that mock the {@code MongoTemplate}.
+ */
+class TestTodoSequence extends TodoSequence {
+    private final AtomicLong counter = new AtomicLong();
+
+    TestTodoSequence() {
+        super(null, Duration.ZERO);
+    }
+
+    @Override
+    public long allocate(int count) {
+        return counter.getAndAdd(count) + 1;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoBatchServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class);
+    private final TodoCache todoCache = new TodoCache(100, Duration.ofMinutes(1));
+    private final TodoChangesService todoChangesService = mock(TodoChangesService.class);
+    private final TodoStatsService todoStatsService = mock(TodoStatsService.class);
+    private final TodoBatchService todoBatchService = new TodoBatchService(
+            mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(), todoCache,
+            new TestTodoSequence(), todoChangesService, todoStatsService, null);
+
+    @Test
+    @DisplayName("executeBatch - should run all valid operations in one bulk write")
+    void executeBatch_shouldRunAllValidOperationsInOneBulkWrite() {
+        Todo existingTodo = new Todo("title", "description");
+        existingTodo.setId("existing");
+        todoCache.put(existingTodo);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(existingTodo));
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult(1, 1, 1));
+
+        List<TodoBatchResult> results = todoBatchService.executeBatch(List.of(
+                new TodoBatchOperation(TodoBatchOperation.Type.CREATE, null, new TodoDto("title", "description")),
+                new TodoBatchOperation(TodoBatchOperation.Type.UPDATE, "existing", new TodoDto("titleUpdated", "description")),
+                new TodoBatchOperation(TodoBatchOperation.Type.DELETE, "existing", null)
+        ));
+
+        assertEquals(201, results.get(0).status());
+        assertNotNull(results.get(0).id());
+        assertEquals(200, results.get(1).status());
+        assertEquals(200, results.get(2).status());
+        verify(bulkOperations).insert(any(Todo.class));
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).remove(any(Query.class));
+        verify(bulkOperations, times(1)).execute();
+        assertNull(todoCache.getIfPresent("existing"));
+    }
+
+    @Test
+    @DisplayName("executeBatch - should report invalid and missing todos per item")
+    void executeBatch_shouldReportInvalidAndMissingTodosPerItem() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult(0, 0, 0));
+
+        List<TodoBatchResult> results = todoBatchService.executeBatch(List.of(
+                new TodoBatchOperation(TodoBatchOperation.Type.CREATE, null, new TodoDto("t", "description")),
+                new TodoBatchOperation(TodoBatchOperation.Type.UPDATE, "missing", new TodoDto("title", "description")),
+                new TodoBatchOperation(null, "id", null),
+                new TodoBatchOperation(TodoBatchOperation.Type.DELETE, "missing", null)
+        ));
+
+        assertEquals(new TodoBatchResult(0, null, 400, "Title must be between 3 and 255 characters"), results.get(0));
+        assertEquals(new TodoBatchResult(1, "missing", 404, "No todo with id missing"), results.get(1));
+        assertEquals(new TodoBatchResult(2, "id", 400, "Operation type is required"), results.get(2));
+        assertEquals(new TodoBatchResult(3, "missing", 404, "No todo with id missing"), results.get(3));
+        verify(bulkOperations, never()).remove(any(Query.class));
+    }
+
+    @Test
+    @DisplayName("executeBatch - should report 404, when the bulk write did not match a todo deleted meanwhile")
+    void executeBatch_shouldReport404WhenTheBulkWriteDidNotMatchATodoDeletedMeanwhile() {
+        Todo existingTodo = new Todo("title", "description");
+        existingTodo.setId("existing");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulkOperations);
+        // found before the bulk write, gone when the unmatched update is resolved
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(existingTodo), List.of());
+        when(mongoTemplate.find(any(Query.class), eq(TodoTombstone.class)))
+                .thenReturn(List.of(new TodoTombstone("existing", 1, Instant.now())));
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult(0, 0, 0));
+
+        List<TodoBatchResult> results = todoBatchService.executeBatch(List.of(
+                new TodoBatchOperation(TodoBatchOperation.Type.UPDATE, "existing", new TodoDto("titleUpdated", "description")),
+                new TodoBatchOperation(TodoBatchOperation.Type.DELETE, "existing", null)
+        ));
+
+        assertEquals(new TodoBatchResult(0, "existing", 404, "No todo with id existing"), results.get(0));
+        assertEquals(new TodoBatchResult(1, "existing", 404, "No todo with id existing"), results.get(1));
+        verify(todoChangesService).recordDeletions(List.of());
+        verifyNoInteractions(todoStatsService);
+    }
+
+    @Test
+    @DisplayName("executeBatch - should report 409, when a versioned update did not match the version")
+    void executeBatch_shouldReport409WhenAVersionedUpdateDidNotMatchTheVersion() {
+        Todo existingTodo = new Todo("title", "description");
+        existingTodo.setId("existing");
+        existingTodo.setModSeq(0L);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(existingTodo));
+        when(bulkOperations.execute()).thenReturn(bulkWriteResult(0, 0, 0));
+
+        List<TodoBatchResult> results = todoBatchService.executeBatch(List.of(
+                new TodoBatchOperation(TodoBatchOperation.Type.UPDATE, "existing", new TodoDto("titleUpdated", "description", 1L))
+        ));
+
+        assertEquals(new TodoBatchResult(0, "existing", 409, "Todo with id existing is no longer at version 1"), results.get(0));
+        verify(bulkOperations).updateOne(argThat((Query query) -> query.getQueryObject().get("version").equals(1L)), any(Update.class));
+    }
+
+    @Test
+    @DisplayName("executeBatch - should return no results and write nothing, when batch is empty")
+    void executeBatch_shouldReturnNoResultsAndWriteNothingWhenBatchIsEmpty() {
+        assertEquals(List.of(), todoBatchService.executeBatch(List.of()));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("executeBatch - should throw exception, when batch is too large")
+    void executeBatch_shouldThrowExceptionWhenBatchIsTooLarge() {
+        TodoBatchOperation operation = new TodoBatchOperation(TodoBatchOperation.Type.DELETE, "id", null);
+        List<TodoBatchOperation> operations = Collections.nCopies(TodoBatchService.MAX_BATCH_SIZE + 1, operation);
+        assertThrows(BadRequestException.class, () -> todoBatchService.executeBatch(operations));
+    }
+
+    private static BulkWriteResult bulkWriteResult(int inserted, int matched, int deleted) {
+        return BulkWriteResult.acknowledged(inserted, matched, deleted, matched, List.of(), List.of());
+    }
+}
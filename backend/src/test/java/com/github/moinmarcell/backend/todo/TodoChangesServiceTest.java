@@ -0,0 +1,117 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.github.moinmarcell.backend.exception.ChangesTokenExpiredException;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoChangesServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TodoSequence todoSequence = mock(TodoSequence.class);
+    private final TodoCache todoCache = new TodoCache(100, Duration.ofMinutes(1));
+    private final TodoChangesService todoChangesService = new TodoChangesService(
+            mongoTemplate, todoSequence, todoCache, Duration.ofDays(7), Duration.ofMinutes(1));
+
+    @Test
+    @DisplayName("getChanges - should merge changed todos and tombstones in modification order")
+    void getChanges_shouldMergeTodosAndTombstonesInModificationOrder() {
+        Todo first = todo(3);
+        Todo second = todo(5);
+        TodoTombstone tombstone = new TodoTombstone("deleted", 4, Instant.now());
+        when(todoSequence.watermark()).thenReturn(5L);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(first, second));
+        when(mongoTemplate.find(any(Query.class), eq(TodoTombstone.class))).thenReturn(List.of(tombstone));
+
+        TodoChanges firstPage = todoChangesService.getChanges(TodoCursor.encode("2"), 2);
+        assertEquals(List.of(first), firstPage.todos());
+        assertEquals(List.of(tombstone), firstPage.deleted());
+        assertTrue(firstPage.hasMore());
+        assertEquals("4", TodoCursor.decode(firstPage.token()));
+
+        TodoChanges lastPage = todoChangesService.getChanges(TodoCursor.encode("2"), 3);
+        assertFalse(lastPage.hasMore());
+        assertEquals("5", TodoCursor.decode(lastPage.token()));
+    }
+
+    @Test
+    @DisplayName("getChanges - should return the same token, when nothing changed")
+    void getChanges_shouldReturnSameTokenWhenNothingChanged() {
+        when(todoSequence.watermark()).thenReturn(7L);
+
+        TodoChanges changes = todoChangesService.getChanges(TodoCursor.encode("7"), null);
+        assertEquals(List.of(), changes.todos());
+        assertEquals("7", TodoCursor.decode(changes.token()));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getChanges - should throw exception, when tombstones since the token were compacted")
+    void getChanges_shouldThrowExceptionWhenTombstonesWereCompacted() {
+        when(todoSequence.compactedThrough()).thenReturn(10L);
+        assertThrows(ChangesTokenExpiredException.class, () -> todoChangesService.getChanges(TodoCursor.encode("9"), null));
+    }
+
+    @Test
+    @DisplayName("getChanges - should throw exception, when token is invalid")
+    void getChanges_shouldThrowExceptionWhenTokenIsInvalid() {
+        assertThrows(BadRequestException.class, () -> todoChangesService.getChanges("not-a-token", null));
+    }
+
+    @Test
+    @DisplayName("snapshot - should change with writes of this instance without reading the collection again")
+    void snapshot_shouldChangeWithOwnWritesWithoutReadingTheCollectionAgain() {
+        when(todoSequence.watermark()).thenReturn(5L);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("todos"), eq(Document.class))).thenReturn(newestChange(5));
+        String snapshot = todoChangesService.snapshot();
+        assertEquals(snapshot, todoChangesService.snapshot());
+        todoCache.put(todo(6));
+        assertNotEquals(snapshot, todoChangesService.snapshot());
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq("todos"), eq(Document.class));
+    }
+
+    @Test
+    @DisplayName("snapshot - should change with writes of other instances, once the checkpoint is read again")
+    void snapshot_shouldChangeWithOtherWritesOnceTheCheckpointIsReadAgain() {
+        TodoChangesService refreshingChangesService = new TodoChangesService(
+                mongoTemplate, todoSequence, todoCache, Duration.ofDays(7), Duration.ZERO);
+        when(todoSequence.watermark()).thenReturn(5L, 7L);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("todos"), eq(Document.class)))
+                .thenReturn(newestChange(5), newestChange(7));
+        assertNotEquals(refreshingChangesService.snapshot(), refreshingChangesService.snapshot());
+    }
+
+    @Test
+    @DisplayName("newestChange - should only consider changes of the default board up to the watermark")
+    void newestChange_shouldOnlyConsiderChangesOfTheDefaultBoardUpToTheWatermark() {
+        Document match = TodoChangesService.newestChange(5).toPipeline(Aggregation.DEFAULT_CONTEXT)
+                .getFirst().get("$match", Document.class);
+        assertEquals(new Document("$lte", 5L), match.get("modSeq"));
+        assertTrue(match.containsKey("boardId"));
+        assertEquals(0, TodoChangesService.newestModSeq(null));
+        assertEquals(5, TodoChangesService.newestModSeq(new Document("modSeq", 5L)));
+    }
+
+    private static Todo todo(long modSeq) {
+        Todo todo = new Todo("title", "description");
+        todo.setId("id" + modSeq);
+        todo.setModSeq(modSeq);
+        return todo;
+    }
+
+    private static AggregationResults<Document> newestChange(long modSeq) {
+        return new AggregationResults<>(List.of(new Document("modSeq", modSeq)), new Document());
+    }
+}
@@ -1,23 +1,35 @@
 package com.github.moinmarcell.backend.todo;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.github.moinmarcell.backend.exception.CustomErrorMessage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -31,6 +43,12 @@ class TodoControllerTest {
     private MockMvc mockMvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private TodoArchiveService todoArchiveService;
+    @Autowired
+    private TodoStatsService todoStatsService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     @Test
     @DisplayName("getTodos - should return empty list")
@@ -41,6 +59,247 @@ class TodoControllerTest {
                 .andExpect(content().json("[]"));
     }
 
+    @Test
+    @DisplayName("getTodos - should return pages linked by next cursor")
+    void getTodos_shouldReturnPagesLinkedByNextCursor() throws Exception {
+        Todo firstTodo = saveTodo(new TodoDto("first", "test"));
+        Todo secondTodo = saveTodo(new TodoDto("second", "test"));
+
+        MvcResult firstPageResult = mockMvc.perform(get(BASE_URI_TODOS).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(firstTodo) + "]"))
+                .andReturn();
+        String nextCursor = firstPageResult.getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(nextCursor);
+
+        MvcResult secondPageResult = mockMvc.perform(get(BASE_URI_TODOS).param("limit", "1").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(secondTodo) + "]"))
+                .andReturn();
+        assertNull(secondPageResult.getResponse().getHeader("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 400 and error message, when limit is less than 1")
+    void getTodos_shouldReturn400AndErrorMessageWhenLimitIsLessThan1() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URI_TODOS).param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(result.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Bad request: Limit must be at least 1", errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return only requested fields, when fields are given")
+    void getTodos_shouldReturnOnlyRequestedFieldsWhenFieldsAreGiven() throws Exception {
+        Todo firstTodo = saveTodo(new TodoDto("first", "a long description"));
+        Todo secondTodo = saveTodo(new TodoDto("second", "a long description"));
+
+        MvcResult firstPageResult = mockMvc.perform(get(BASE_URI_TODOS).param("fields", "title").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"" + firstTodo.getId() + "\",\"title\":\"first\",\"version\":0}]", true))
+                .andReturn();
+        String nextCursor = firstPageResult.getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(nextCursor);
+
+        mockMvc.perform(get(BASE_URI_TODOS).param("fields", "title,status").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"" + secondTodo.getId() + "\",\"title\":\"second\",\"status\":\"TODO\",\"version\":0}]", true));
+    }
+
+    @Test
+    @DisplayName("getTodo - should return only requested fields, when fields are given")
+    void getTodo_shouldReturnOnlyRequestedFieldsWhenFieldsAreGiven() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "a long description"));
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + savedTodo.getId()).param("fields", "title"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + savedTodo.getVersion() + "\""))
+                .andExpect(content().json("{\"id\":\"" + savedTodo.getId() + "\",\"title\":\"test\",\"version\":0}", true));
+    }
+
+    @Test
+    @DisplayName("getTodo - should write null fields, when no fields are given")
+    void getTodo_shouldWriteNullFieldsWhenNoFieldsAreGiven() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", null));
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + savedTodo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":\"" + savedTodo.getId() + "\",\"description\":null}"));
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 400 and error message, when a field is unknown")
+    void getTodos_shouldReturn400AndErrorMessageWhenFieldIsUnknown() throws Exception {
+        MvcResult getTodosResult = mockMvc.perform(get(BASE_URI_TODOS).param("fields", "title,titleTerms"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(getTodosResult.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Bad request: Unknown field 'titleTerms', expected any of id, boardId, title, description, createdAt, status, doneAt, rank, version, modSeq", errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return 304, when etag matches and nothing changed")
+    void getTodos_shouldReturn304WhenETagMatchesAndNothingChanged() throws Exception {
+        saveTodo(new TodoDto("test", "test"));
+        String eTag = mockMvc.perform(get(BASE_URI_TODOS))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BASE_URI_TODOS).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        saveTodo(new TodoDto("test2", "test"));
+        mockMvc.perform(get(BASE_URI_TODOS).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("searchTodos - should return prefix matches ranked by title before description")
+    void searchTodos_shouldReturnPrefixMatchesRankedByTitle() throws Exception {
+        Todo descriptionMatch = saveTodo(new TodoDto("Write notes", "about the kanban board"));
+        Todo titleMatch = saveTodo(new TodoDto("Kanban columns", "test"));
+        saveTodo(new TodoDto("Unrelated", "test"));
+
+        MvcResult firstPageResult = mockMvc.perform(get(BASE_URI_TODOS + "/search").param("q", "kanb").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(titleMatch) + "]", true))
+                .andReturn();
+        String nextCursor = firstPageResult.getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(nextCursor);
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/search").param("q", "kanb").param("limit", "1").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(descriptionMatch) + "]", true))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("searchTodos - should find todo by new title, after update")
+    void searchTodos_shouldFindTodoByNewTitleAfterUpdate() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("Release notes", "test"))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/search").param("q", "release"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"" + savedTodo.getId() + "\",\"title\":\"Release notes\"}]"));
+    }
+
+    @Test
+    @DisplayName("searchTodos - should return 400 and error message, when query has no words")
+    void searchTodos_shouldReturn400AndErrorMessageWhenQueryHasNoWords() throws Exception {
+        MvcResult searchResult = mockMvc.perform(get(BASE_URI_TODOS + "/search").param("q", "  "))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(searchResult.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Bad request: Search query must contain at least one word", errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("getChanges - should return only todos changed and deleted since the token")
+    void getChanges_shouldReturnOnlyTodosChangedAndDeletedSinceToken() throws Exception {
+        Todo updatedTodo = saveTodo(new TodoDto("updated", "test"));
+        Todo deletedTodo = saveTodo(new TodoDto("deleted", "test"));
+        saveTodo(new TodoDto("unchanged", "test"));
+
+        MvcResult initialResult = mockMvc.perform(get(BASE_URI_TODOS + "/changes"))
+                .andExpect(status().isOk())
+                .andReturn();
+        TodoChanges initialChanges = objectMapper.readValue(initialResult.getResponse().getContentAsString(), TodoChanges.class);
+        assertEquals(3, initialChanges.todos().size());
+
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + updatedTodo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("updatedAgain", "test"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete(BASE_URI_TODOS + "/" + deletedTodo.getId()))
+                .andExpect(status().isOk());
+
+        MvcResult changesResult = mockMvc.perform(get(BASE_URI_TODOS + "/changes").param("since", initialChanges.token()))
+                .andExpect(status().isOk())
+                .andReturn();
+        TodoChanges changes = objectMapper.readValue(changesResult.getResponse().getContentAsString(), TodoChanges.class);
+        assertEquals(List.of("updatedAgain"), changes.todos().stream().map(Todo::getTitle).toList());
+        assertEquals(List.of(deletedTodo.getId()), changes.deleted().stream().map(TodoTombstone::id).toList());
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/changes").param("since", changes.token()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"todos\":[],\"deleted\":[],\"token\":\"" + changes.token() + "\",\"hasMore\":false}"));
+    }
+
+    @Test
+    @DisplayName("getTodo - should return 304, when etag matches the todo version")
+    void getTodo_shouldReturn304WhenETagMatchesTodoVersion() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + savedTodo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + savedTodo.getVersion() + "\""));
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + savedTodo.getVersion() + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("exportTodos - should stream all todos as ndjson")
+    void exportTodos_shouldStreamAllTodosAsNdjson() throws Exception {
+        Todo firstTodo = saveTodo(new TodoDto("first", "test"));
+        Todo secondTodo = saveTodo(new TodoDto("second", "test"));
+
+        MvcResult exportResult = mockMvc.perform(get(BASE_URI_TODOS + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(exportResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(firstTodo.getId(), objectMapper.readValue(lines[0], Todo.class).getId());
+        assertEquals(secondTodo.getId(), objectMapper.readValue(lines[1], Todo.class).getId());
+    }
+
+    @Test
+    @DisplayName("importTodos - should return 201 and insert all todos")
+    void importTodos_shouldReturn201AndInsertAllTodos() throws Exception {
+        String ndjson = "{\"title\":\"first\",\"description\":\"test\"}\n{\"title\":\"second\"}\n";
+
+        mockMvc.perform(post(BASE_URI_TODOS + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("Imported 2 todos"));
+
+        MvcResult getTodosResult = mockMvc.perform(get(BASE_URI_TODOS))
+                .andExpect(status().isOk())
+                .andReturn();
+        Todo[] todos = objectMapper.readValue(getTodosResult.getResponse().getContentAsString(), Todo[].class);
+        assertEquals(2, todos.length);
+    }
+
+    @Test
+    @DisplayName("importTodos - should return 400 and error message, when a line is not valid json")
+    void importTodos_shouldReturn400AndErrorMessageWhenLineIsNotValidJson() throws Exception {
+        MvcResult importResult = mockMvc.perform(post(BASE_URI_TODOS + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{not json}\n"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(importResult.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Bad request: Invalid todo at line 1", errorMessage.message());
+    }
+
     @Test
     @DisplayName("getTodo - should return 200 and found todo")
     void getTodo_shouldReturn201AndSavedTodo() throws Exception {
@@ -61,6 +320,40 @@ class TodoControllerTest {
                 .andExpect(content().json(savedTodoJson));
     }
 
+    @Test
+    @DisplayName("addTodo - should read and write cbor, when requested")
+    void addTodo_shouldReadAndWriteCborWhenRequested() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+
+        MvcResult saveTodoResult = mockMvc.perform(post(BASE_URI_TODOS)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new TodoDto("test", "test"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        Todo savedTodo = cborMapper.readValue(saveTodoResult.getResponse().getContentAsByteArray(), Todo.class);
+        assertEquals("test", savedTodo.getTitle());
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + savedTodo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("getTodos - should return smile, when requested")
+    void getTodos_shouldReturnSmileWhenRequested() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).findAndRegisterModules();
+
+        MvcResult getTodosResult = mockMvc.perform(get(BASE_URI_TODOS).accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+        Todo[] todos = smileMapper.readValue(getTodosResult.getResponse().getContentAsByteArray(), Todo[].class);
+        assertEquals(List.of(savedTodo), List.of(todos));
+    }
+
     @Test
     @DisplayName("addTodo - should return 201 and saved todo")
     void addTodo_shouldReturn201AndSavedTodo() throws Exception {
@@ -144,6 +437,34 @@ class TodoControllerTest {
         assertNotNull(errorMessage.timestamp());
     }
 
+    @Test
+    @DisplayName("executeBatch - should return 200 and a result per operation")
+    void executeBatch_shouldReturn200AndResultPerOperation() throws Exception {
+        Todo existingTodo = saveTodo(new TodoDto("test", "test"));
+        List<TodoBatchOperation> operations = List.of(
+                new TodoBatchOperation(TodoBatchOperation.Type.CREATE, null, new TodoDto("created", "test")),
+                new TodoBatchOperation(TodoBatchOperation.Type.UPDATE, existingTodo.getId(), new TodoDto("updated", "test")),
+                new TodoBatchOperation(TodoBatchOperation.Type.DELETE, "123", null)
+        );
+
+        MvcResult batchResult = mockMvc.perform(post(BASE_URI_TODOS + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andReturn();
+        TodoBatchResult[] results = objectMapper.readValue(batchResult.getResponse().getContentAsString(), TodoBatchResult[].class);
+
+        assertEquals(201, results[0].status());
+        assertEquals(200, results[1].status());
+        assertEquals(new TodoBatchResult(2, "123", 404, "No todo with id 123"), results[2]);
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + results[0].id()))
+                .andExpect(status().isOk());
+        MvcResult updatedResult = mockMvc.perform(get(BASE_URI_TODOS + "/" + existingTodo.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("updated", objectMapper.readValue(updatedResult.getResponse().getContentAsString(), Todo.class).getTitle());
+    }
+
     @Test
     @DisplayName("updateTodo - should return 200 and updated todo")
     void updateTodo_shouldReturn200AndUpdatedTodo() throws Exception {
@@ -293,6 +614,164 @@ class TodoControllerTest {
         assertNotNull(errorMessage.timestamp());
     }
 
+    @Test
+    @DisplayName("updateTodo - should return 409 and error message, when version is stale")
+    void updateTodo_shouldReturn409AndErrorMessageWhenVersionIsStale() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+        String updatedTodoDtoJson = objectMapper.writeValueAsString(new TodoDto("testUpdated", "test", savedTodo.getVersion()));
+
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTodoDtoJson))
+                .andExpect(status().isOk());
+        MvcResult conflictResult = mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTodoDtoJson))
+                .andExpect(status().isConflict())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(conflictResult.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Conflict: Todo with id " + savedTodo.getId() + " is no longer at version " + savedTodo.getVersion(), errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 200 and new etag, when if-match matches")
+    void updateTodo_shouldReturn200AndNewETagWhenIfMatchMatches() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + savedTodo.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("testUpdated", "test"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (savedTodo.getVersion() + 1) + "\""));
+    }
+
+    @Test
+    @DisplayName("updateTodo - should return 412 and error message, when if-match is stale")
+    void updateTodo_shouldReturn412AndErrorMessageWhenIfMatchIsStale() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        MvcResult updateTodoResult = mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (savedTodo.getVersion() + 1) + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoDto("testUpdated", "test"))))
+                .andExpect(status().isPreconditionFailed())
+                .andReturn();
+        CustomErrorMessage errorMessage = objectMapper.readValue(updateTodoResult.getResponse().getContentAsString(), CustomErrorMessage.class);
+        assertEquals("Precondition failed: Todo with id " + savedTodo.getId() + " is no longer at version " + (savedTodo.getVersion() + 1), errorMessage.message());
+    }
+
+    @Test
+    @DisplayName("moveTodo - should return 200 and todo ranked between its new neighbors")
+    void moveTodo_shouldReturn200AndTodoRankedBetweenNeighbors() throws Exception {
+        Todo first = saveTodo(new TodoDto("first", "test"));
+        Todo second = saveTodo(new TodoDto("second", "test"));
+        Todo third = saveTodo(new TodoDto("third", "test"));
+        assertEquals(TodoStatus.TODO, third.getStatus());
+
+        MvcResult moveTodoResult = mockMvc.perform(put(BASE_URI_TODOS + "/" + third.getId() + "/move")
+                        .header(HttpHeaders.IF_MATCH, "\"" + third.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.TODO, first.getId(), second.getId(), null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (third.getVersion() + 1) + "\""))
+                .andReturn();
+        Todo movedTodo = objectMapper.readValue(moveTodoResult.getResponse().getContentAsString(), Todo.class);
+        assertEquals(TodoStatus.TODO, movedTodo.getStatus());
+        assertTrue(first.getRank().compareTo(movedTodo.getRank()) < 0);
+        assertTrue(movedTodo.getRank().compareTo(second.getRank()) < 0);
+
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + first.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.DONE, null, null, null))))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"status\":\"DONE\"}"));
+    }
+
+    @Test
+    @DisplayName("moveTodo - should return 400, when status is missing")
+    void moveTodo_shouldReturn400WhenStatusIsMissing() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + savedTodo.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("getStats - should return counts that match the collection after reconciliation")
+    void getStats_shouldReturnCountsThatMatchCollectionAfterReconciliation() throws Exception {
+        Todo todo = saveTodo(new TodoDto("first", "test"));
+        saveTodo(new TodoDto("second", "test"));
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + todo.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.DONE, null, null, null))))
+                .andExpect(status().isOk());
+        String expected = "{\"total\":2,\"columns\":{\"TODO\":1,\"IN_PROGRESS\":0,\"DONE\":1},"
+                + "\"createdPerDay\":{\"" + LocalDate.now() + "\":2}}";
+
+        mockMvc.perform(get(BASE_URI_TODOS + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expected));
+        todoStatsService.reconcile();
+        mockMvc.perform(get(BASE_URI_TODOS + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expected));
+    }
+
+    @Test
+    @DisplayName("reconcile - should correct counts that drifted from the collection")
+    void reconcile_shouldCorrectCountsThatDrifted() throws Exception {
+        saveTodo(new TodoDto("first", "test"));
+        todoStatsService.flush();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("todos")),
+                new Update().inc("total", 5).inc("columns.DONE", 2), TodoStatsService.COLLECTION);
+
+        todoStatsService.reconcile();
+        mockMvc.perform(get(BASE_URI_TODOS + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"total\":1,\"columns\":{\"TODO\":1,\"IN_PROGRESS\":0,\"DONE\":0}}"));
+    }
+
+    @Test
+    @DisplayName("getArchivedTodos - should return done todos moved out of the live collection")
+    void getArchivedTodos_shouldReturnDoneTodosMovedOutOfLiveCollection() throws Exception {
+        Todo liveTodo = saveTodo(new TodoDto("live", "test"));
+        Todo doneTodo = saveTodo(new TodoDto("done", "test"));
+        mockMvc.perform(put(BASE_URI_TODOS + "/" + doneTodo.getId() + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoMoveDto(TodoStatus.DONE, null, null, null))))
+                .andExpect(status().isOk());
+
+        assertEquals(1, todoArchiveService.archive(LocalDate.now().plusDays(31)));
+
+        mockMvc.perform(get(BASE_URI_TODOS))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[" + objectMapper.writeValueAsString(liveTodo) + "]"));
+        mockMvc.perform(get(BASE_URI_TODOS + "/" + doneTodo.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(BASE_URI_TODOS + "/archive"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":\"" + doneTodo.getId() + "\",\"status\":\"DONE\"}]"));
+        mockMvc.perform(get(BASE_URI_TODOS + "/archive/" + doneTodo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"title\":\"done\"}"));
+    }
+
+    @Test
+    @DisplayName("deleteTodo - should return 412, when if-match is stale")
+    void deleteTodo_shouldReturn412WhenIfMatchIsStale() throws Exception {
+        Todo savedTodo = saveTodo(new TodoDto("test", "test"));
+
+        mockMvc.perform(delete(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + (savedTodo.getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete(BASE_URI_TODOS + "/" + savedTodo.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + savedTodo.getVersion() + "\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @DisplayName("deleteTodo - should return 200 and success message")
     void deleteTodo_shouldReturn200AndSuccessMessage() throws Exception {
@@ -323,4 +802,13 @@ class TodoControllerTest {
         assertEquals("Element not found: No todo with id 123", errorMessage.message());
         assertNotNull(errorMessage.timestamp());
     }
+
+    private Todo saveTodo(TodoDto todoDto) throws Exception {
+        MvcResult saveTodoResult = mockMvc.perform(post(BASE_URI_TODOS)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(todoDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(saveTodoResult.getResponse().getContentAsString(), Todo.class);
+    }
 }
\ No newline at end of file
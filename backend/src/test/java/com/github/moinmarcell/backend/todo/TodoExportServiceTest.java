@@ -0,0 +1,146 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoExportServiceTest {
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final TodoExportService todoExportService = new TodoExportService(
+            todoRepository, mongoTemplate, Validation.buildDefaultValidatorFactory().getValidator(), new TestTodoSequence(),
+            mock(TodoStatsService.class), new TodoCache(100, Duration.ofMinutes(1)), null, objectMapper);
+
+    @Test
+    @DisplayName("exportTodos - should write one json line per todo")
+    void exportTodos_shouldWriteOneJsonLinePerTodo() throws IOException {
+        Todo first = new Todo("first", "description");
+        Todo second = new Todo("second", "description");
+        when(mongoTemplate.stream(any(Query.class), eq(Todo.class))).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(2, todoExportService.exportTodos(outputStream));
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(first, objectMapper.readValue(lines[0], Todo.class));
+        assertEquals(second, objectMapper.readValue(lines[1], Todo.class));
+    }
+
+    @Test
+    @DisplayName("importTodos - should insert todos in batches")
+    void importTodos_shouldInsertTodosInBatches() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(todoRepository.insert(anyList())).thenAnswer(invocation -> {
+            List<Todo> batch = new ArrayList<>(invocation.getArgument(0));
+            batchSizes.add(batch.size());
+            return batch;
+        });
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i <= TodoExportService.IMPORT_BATCH_SIZE; i++) {
+            ndjson.append("{\"title\":\"title ").append(i).append("\"}\n");
+        }
+
+        assertEquals(TodoExportService.IMPORT_BATCH_SIZE + 1, todoExportService.importTodos(toInputStream(ndjson.toString())));
+        assertEquals(List.of(TodoExportService.IMPORT_BATCH_SIZE, 1), batchSizes);
+    }
+
+    @Test
+    @DisplayName("importTodos - should throw exception, when a line is not valid json")
+    void importTodos_shouldThrowExceptionWhenLineIsNotValidJson() {
+        String ndjson = "{\"title\":\"title\"}\n{not json}\n";
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson)));
+        assertEquals("Invalid todo at line 2", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("importTodos - should throw exception, when title is missing")
+    void importTodos_shouldThrowExceptionWhenTitleIsMissing() {
+        String ndjson = "{\"description\":\"description\"}\n";
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson)));
+        assertEquals("Title is required at line 1", exception.getMessage());
+        verify(todoRepository, never()).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("importTodos - should insert nothing, when a line after the first batch is not valid")
+    void importTodos_shouldInsertNothingWhenALineAfterTheFirstBatchIsNotValid() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < TodoExportService.IMPORT_BATCH_SIZE * 2; i++) {
+            ndjson.append("{\"title\":\"title ").append(i).append("\"}\n");
+        }
+        ndjson.append("{not json}\n");
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson.toString())));
+        assertEquals("Invalid todo at line " + (TodoExportService.IMPORT_BATCH_SIZE * 2 + 1), exception.getMessage());
+        verify(todoRepository, never()).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("importTodos - should throw exception, when title is too long")
+    void importTodos_shouldThrowExceptionWhenTitleIsTooLong() {
+        String ndjson = "{\"title\":\"" + "a".repeat(256) + "\"}\n";
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson)));
+        assertEquals("Title must be between 3 and 255 characters at line 1", exception.getMessage());
+        verify(todoRepository, never()).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("importTodos - should insert nothing, when an id appears twice")
+    void importTodos_shouldInsertNothingWhenAnIdAppearsTwice() {
+        String ndjson = "{\"id\":\"id\",\"title\":\"title\"}\n{\"title\":\"title\"}\n{\"id\":\"id\",\"title\":\"title\"}\n";
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson)));
+        assertEquals("Duplicate id id at line 3", exception.getMessage());
+        verify(todoRepository, never()).insert(anyList());
+    }
+
+    @Test
+    @DisplayName("importTodos - should insert nothing, when an id after the first batch is taken")
+    void importTodos_shouldInsertNothingWhenAnIdAfterTheFirstBatchIsTaken() {
+        Todo existingTodo = new Todo("title", "description");
+        existingTodo.setId("taken");
+        when(mongoTemplate.findOne(any(Query.class), eq(Todo.class))).thenReturn(existingTodo);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < TodoExportService.IMPORT_BATCH_SIZE; i++) {
+            ndjson.append("{\"title\":\"title ").append(i).append("\"}\n");
+        }
+        ndjson.append("{\"id\":\"taken\",\"title\":\"title\"}\n");
+
+        DuplicateKeyException exception = assertThrows(DuplicateKeyException.class,
+                () -> todoExportService.importTodos(toInputStream(ndjson.toString())));
+        assertEquals("Todo with id taken at line " + (TodoExportService.IMPORT_BATCH_SIZE + 1) + " already exists",
+                exception.getMessage());
+        verify(todoRepository, never()).insert(anyList());
+    }
+
+    private static ByteArrayInputStream toInputStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
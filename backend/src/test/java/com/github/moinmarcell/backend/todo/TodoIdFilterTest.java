@@ -0,0 +1,93 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TodoIdFilterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    @DisplayName("mightContain - should let every id through, until the ids are loaded")
+    void mightContain_shouldLetEveryIdThroughUntilLoaded() {
+        TodoIdFilter todoIdFilter = new TodoIdFilter(mongoTemplate, 1000, 0.01);
+        assertTrue(todoIdFilter.mightContain("unknown"));
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any()))
+                .thenReturn(Stream.of(new Document("_id", "loaded")));
+        todoIdFilter.load();
+
+        assertTrue(todoIdFilter.isLoaded());
+        assertTrue(todoIdFilter.mightContain("loaded"));
+        assertFalse(todoIdFilter.mightContain("unknown"));
+    }
+
+    @Test
+    @DisplayName("mightContain - should never miss an added id")
+    void mightContain_shouldNeverMissAnAddedId() {
+        TodoIdFilter todoIdFilter = loadedFilter(10_000);
+        IntStream.range(0, 10_000).forEach(i -> todoIdFilter.add("id" + i));
+        IntStream.range(0, 5_000).forEach(i -> todoIdFilter.remove("id" + i));
+
+        for (int i = 5_000; i < 10_000; i++) {
+            assertTrue(todoIdFilter.mightContain("id" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("mightContain - should stay near the configured false positive rate")
+    void mightContain_shouldStayNearTheConfiguredFalsePositiveRate() {
+        TodoIdFilter todoIdFilter = loadedFilter(10_000);
+        IntStream.range(0, 10_000).forEach(i -> todoIdFilter.add("id" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> todoIdFilter.mightContain("other" + i))
+                .count();
+
+        assertEquals(0.01, todoIdFilter.expectedFalsePositiveRate(), 0.002);
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("remove - should forget removed ids")
+    void remove_shouldForgetRemovedIds() {
+        TodoIdFilter todoIdFilter = loadedFilter(1000);
+        todoIdFilter.add("id");
+        todoIdFilter.remove("id");
+
+        assertFalse(todoIdFilter.mightContain("id"));
+        assertEquals(0, todoIdFilter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("remove - should be ignored, until the ids are loaded")
+    void remove_shouldBeIgnoredUntilLoaded() {
+        TodoIdFilter todoIdFilter = new TodoIdFilter(mongoTemplate, 1000, 0.01);
+        todoIdFilter.add("id");
+        // the load may still count the todo, so removing it now could leave a counter below its ids
+        todoIdFilter.remove("id");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any())).thenReturn(Stream.empty());
+        todoIdFilter.load();
+
+        assertTrue(todoIdFilter.mightContain("id"));
+    }
+
+    private TodoIdFilter loadedFilter(int expectedIds) {
+        TodoIdFilter todoIdFilter = new TodoIdFilter(mongoTemplate, expectedIds, 0.01);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any())).thenReturn(Stream.empty());
+        todoIdFilter.load();
+        return todoIdFilter;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.ServiceUnavailableException;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TodoIngestBufferTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class);
+    private final TodoStatsService todoStatsService = mock(TodoStatsService.class);
+    private final TodoCache todoCache = new TodoCache(100, Duration.ofMinutes(1));
+    private TodoIngestBuffer todoIngestBuffer;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        todoIngestBuffer.stop();
+    }
+
+    @Test
+    @DisplayName("add - should return after the batch was inserted, when durability is flush")
+    void add_shouldReturnAfterInsertWhenDurabilityIsFlush() {
+        todoIngestBuffer = buffer(10, TodoIngestBuffer.Durability.FLUSH);
+        todoIngestBuffer.start();
+
+        Todo todo = todoIngestBuffer.add(todo("1"));
+
+        assertNotNull(todo.getModSeq());
+        verify(bulkOperations).insert(List.of(todo));
+        assertEquals(todo, todoCache.getIfPresent("1"));
+    }
+
+    @Test
+    @DisplayName("add - should return before the insert and write it later, when durability is enqueue")
+    void add_shouldReturnBeforeInsertWhenDurabilityIsEnqueue() throws InterruptedException {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            inserted.countDown();
+            releaseInsert.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        todoIngestBuffer = buffer(10, TodoIngestBuffer.Durability.ENQUEUE);
+        todoIngestBuffer.start();
+
+        Todo todo = todoIngestBuffer.add(todo("1"));
+
+        assertEquals(todo, todoCache.getIfPresent("1"));
+        assertTrue(inserted.await(5, TimeUnit.SECONDS));
+        // the writer numbers its own copy, not the todo the request returned
+        assertNull(todo.getModSeq());
+        releaseInsert.countDown();
+    }
+
+    @Test
+    @DisplayName("add - should only fail the todos the insert rejected, when part of a batch fails")
+    void add_shouldOnlyFailTheRejectedTodosWhenPartOfABatchFails() {
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("E11000 duplicate key", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(duplicate), null, new ServerAddress(), Set.of())));
+        todoIngestBuffer = new TodoIngestBuffer(mongoTemplate, new TestTodoSequence(), todoCache, todoStatsService,
+                10, 2, Duration.ofMinutes(1), TodoIngestBuffer.Durability.ENQUEUE, Duration.ofSeconds(5));
+        todoIngestBuffer.start();
+
+        todoIngestBuffer.add(todo("1"));
+        todoIngestBuffer.add(todo("2"));
+
+        verify(todoStatsService, timeout(5000)).created(argThat(todo -> todo.getId().equals("1")));
+        verify(todoStatsService, never()).created(argThat(todo -> todo.getId().equals("2")));
+        assertNotNull(todoCache.getIfPresent("1").getModSeq());
+        assertNull(todoCache.getIfPresent("2"));
+    }
+
+    @Test
+    @DisplayName("add - should throw exception, when the buffer is full")
+    void add_shouldThrowExceptionWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch insertStarted = new CountDownLatch(1);
+        CountDownLatch releaseInsert = new CountDownLatch(1);
+        when(bulkOperations.execute()).thenAnswer(invocation -> {
+            insertStarted.countDown();
+            releaseInsert.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        todoIngestBuffer = buffer(1, TodoIngestBuffer.Durability.ENQUEUE);
+        todoIngestBuffer.start();
+
+        // the writer takes the first todo and blocks in the insert, the second one fills the buffer
+        todoIngestBuffer.add(todo("1"));
+        assertTrue(insertStarted.await(5, TimeUnit.SECONDS));
+        todoIngestBuffer.add(todo("2"));
+
+        assertThrows(ServiceUnavailableException.class, () -> todoIngestBuffer.add(todo("3")));
+        releaseInsert.countDown();
+    }
+
+    private TodoIngestBuffer buffer(int capacity, TodoIngestBuffer.Durability durability) {
+        return new TodoIngestBuffer(mongoTemplate, new TestTodoSequence(), todoCache, todoStatsService,
+                capacity, 1, Duration.ofMillis(5), durability, Duration.ofSeconds(5));
+    }
+
+    private static Todo todo(String id) {
+        Todo todo = new Todo("title " + id, "description");
+        todo.setId(id);
+        return todo;
+    }
+}
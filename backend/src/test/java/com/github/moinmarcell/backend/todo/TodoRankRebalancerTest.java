@@ -0,0 +1,77 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoRankRebalancerTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class);
+    private final TodoCache todoCache = new TodoCache(100, Duration.ofMinutes(1));
+    private final TodoRankRebalancer todoRankRebalancer = new TodoRankRebalancer(
+            mock(TodoPartitionRouter.class), todoCache, new TestTodoSequence(), mock(TodoJobLease.class), Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("rebalance - should rewrite the column of one board from its last card, without bumping the version")
+    void rebalance_shouldRewriteTheColumnOfOneBoardFromItsLastCard() {
+        TodoPartition board = new TodoPartition(Todo.DEFAULT_BOARD, mongoTemplate, "todos", true);
+        Todo last = todo("last", "1z");
+        Todo first = todo("first", "1a");
+        todoCache.put(last);
+        when(mongoTemplate.count(any(Query.class), eq(Todo.class), eq("todos"))).thenReturn(2L);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class), eq("todos"))).thenReturn(List.of(last, first));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class, "todos")).thenReturn(bulkOperations);
+
+        int rebalanced = todoRankRebalancer.rebalance(board, TodoStatus.TODO);
+
+        assertEquals(2, rebalanced);
+        ArgumentCaptor<Query> page = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(page.capture(), eq(Todo.class), eq("todos"));
+        assertEquals(2, page.getValue().getLimit());
+        assertTrue(page.getValue().getQueryObject().containsKey("boardId"));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), updates.capture());
+        Document lastUpdate = updates.getAllValues().get(0).getUpdateObject();
+        Document firstUpdate = updates.getAllValues().get(1).getUpdateObject();
+        assertTrue(firstUpdate.get("$set", Document.class).getString("rank")
+                .compareTo(lastUpdate.get("$set", Document.class).getString("rank")) < 0);
+        assertNotNull(lastUpdate.get("$set", Document.class).get("modSeq"));
+        assertFalse(lastUpdate.containsKey("$inc"));
+        assertNull(todoCache.getIfPresent("last"));
+    }
+
+    @Test
+    @DisplayName("rebalance - should not take change numbers for boards outside the change feed")
+    void rebalance_shouldNotTakeChangeNumbersForOtherBoards() {
+        TodoPartition board = new TodoPartition("team", mongoTemplate, "todos", true);
+        when(mongoTemplate.count(any(Query.class), eq(Todo.class), eq("todos"))).thenReturn(1L);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class), eq("todos"))).thenReturn(List.of(todo("id", "1a")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Todo.class, "todos")).thenReturn(bulkOperations);
+
+        todoRankRebalancer.rebalance(board, TodoStatus.TODO);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        assertFalse(update.getValue().getUpdateObject().get("$set", Document.class).containsKey("modSeq"));
+        assertFalse(update.getValue().getUpdateObject().containsKey("$inc"));
+    }
+
+    private static Todo todo(String id, String rank) {
+        Todo todo = new Todo(id, "description");
+        todo.setId(id);
+        todo.setRank(rank);
+        return todo;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoRankTest {
+
+    @Test
+    @DisplayName("initial - should sort by creation time")
+    void initial_shouldSortByCreationTime() {
+        assertTrue(TodoRank.initial(1_000).compareTo(TodoRank.initial(1_001)) < 0);
+        assertTrue(TodoRank.initial(999).compareTo(TodoRank.initial(1_000)) < 0);
+    }
+
+    @Test
+    @DisplayName("next - should return increasing ranks, when called within the same millisecond")
+    void next_shouldReturnIncreasingRanks() {
+        String previous = TodoRank.next();
+        for (int i = 0; i < 100; i++) {
+            String rank = TodoRank.next();
+            assertTrue(previous.compareTo(rank) < 0);
+            previous = rank;
+        }
+    }
+
+    @Test
+    @DisplayName("between - should return rank between neighbors")
+    void between_shouldReturnRankBetweenNeighbors() {
+        String previous = TodoRank.initial(1_000);
+        String next = TodoRank.initial(1_001);
+        String rank = TodoRank.between(previous, next);
+        assertTrue(previous.compareTo(rank) < 0);
+        assertTrue(rank.compareTo(next) < 0);
+    }
+
+    @Test
+    @DisplayName("between - should keep finding ranks, when cards are moved into the same gap repeatedly")
+    void between_shouldKeepFindingRanksWhenMovedIntoSameGapRepeatedly() {
+        String previous = TodoRank.initial(1_000);
+        String next = TodoRank.initial(1_001);
+        for (int i = 0; i < 200; i++) {
+            String rank = TodoRank.between(previous, next);
+            assertTrue(previous.compareTo(rank) < 0);
+            assertTrue(rank.compareTo(next) < 0);
+            if (i % 2 == 0) {
+                next = rank;
+            } else {
+                previous = rank;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("between - should place rank at the start and end of a column")
+    void between_shouldPlaceRankAtStartAndEndOfColumn() {
+        String first = TodoRank.initial(1_000);
+        String beforeFirst = TodoRank.between(null, first);
+        String afterFirst = TodoRank.between(first, null);
+        assertTrue(beforeFirst.compareTo(first) < 0);
+        assertTrue(first.compareTo(afterFirst) < 0);
+        assertTrue(afterFirst.compareTo(TodoRank.initial(1_001)) < 0);
+    }
+
+    @Test
+    @DisplayName("between - should throw exception, when neighbors are out of order")
+    void between_shouldThrowExceptionWhenNeighborsAreOutOfOrder() {
+        String rank = TodoRank.initial(1_000);
+        assertThrows(IllegalArgumentException.class, () -> TodoRank.between(rank, rank));
+        assertThrows(IllegalArgumentException.class, () -> TodoRank.between(TodoRank.initial(1_001), rank));
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.moinmarcell.backend.todo;
+
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoSearchTermsTest {
+
+    @Test
+    @DisplayName("of - should return lower case words with all their prefixes")
+    void of_shouldReturnLowerCaseWordsWithPrefixes() {
+        assertEquals(List.of("fi", "fix", "a", "bu", "bug"), TodoSearchTerms.of("Fix a bug!"));
+    }
+
+    @Test
+    @DisplayName("of - should truncate long words")
+    void of_shouldTruncateLongWords() {
+        List<String> terms = TodoSearchTerms.of("x".repeat(50));
+        assertEquals("x".repeat(TodoSearchTerms.MAX_TERM_LENGTH), terms.getLast());
+    }
+
+    @Test
+    @DisplayName("of - should return no terms, when text is null")
+    void of_shouldReturnNoTermsWhenTextIsNull() {
+        assertEquals(List.of(), TodoSearchTerms.of(null));
+    }
+
+    @Test
+    @DisplayName("forQuery - should return distinct truncated words")
+    void forQuery_shouldReturnDistinctTruncatedWords() {
+        assertEquals(List.of("kan", "board", "y".repeat(TodoSearchTerms.MAX_TERM_LENGTH)),
+                TodoSearchTerms.forQuery("Kan, board kan " + "y".repeat(30)));
+    }
+
+    @Test
+    @DisplayName("forQuery - should throw exception, when query has no words")
+    void forQuery_shouldThrowExceptionWhenQueryHasNoWords() {
+        assertThrows(BadRequestException.class, () -> TodoSearchTerms.forQuery(" ?! "));
+        assertThrows(BadRequestException.class, () -> TodoSearchTerms.forQuery(null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.moinmarcell.backend.todo;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodoSequenceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final Clock clock = mock(Clock.class);
+    private final TodoSequence todoSequence = new TodoSequence(mongoTemplate, Duration.ofSeconds(5), clock);
+
+    @Test
+    @DisplayName("write - should pass consecutive numbers, without a round trip after the first write")
+    void write_shouldPassConsecutiveNumbers() {
+        instances(1L);
+        when(clock.millis()).thenReturn(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+
+        long first = todoSequence.write(3, firstModSeq -> firstModSeq);
+        long next = todoSequence.write(1, modSeq -> modSeq);
+        assertEquals(first + 3, next);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(TodoSequence.COLLECTION));
+    }
+
+    @Test
+    @DisplayName("allocate - should not repeat numbers of another instance in the same millisecond")
+    void allocate_shouldNotRepeatNumbersOfAnotherInstance() {
+        instances(1L, 2L);
+        when(clock.millis()).thenReturn(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+        TodoSequence otherSequence = new TodoSequence(mongoTemplate, Duration.ofSeconds(5), clock);
+
+        long first = todoSequence.allocate(TodoSequence.MAX_COUNT);
+        long other = otherSequence.allocate(1);
+        assertTrue(other < first || other >= first + TodoSequence.MAX_COUNT);
+    }
+
+    @Test
+    @DisplayName("allocate - should keep increasing, when the clock goes back")
+    void allocate_shouldKeepIncreasingWhenTheClockGoesBack() {
+        instances(1L);
+        long now = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+        when(clock.millis()).thenReturn(now, now - 1000);
+
+        long first = todoSequence.allocate(1);
+        assertTrue(todoSequence.allocate(1) > first);
+    }
+
+    @Test
+    @DisplayName("watermark - should pass a number once the safety lag is over")
+    void watermark_shouldPassANumberOnceTheSafetyLagIsOver() {
+        instances(1L);
+        long now = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+        when(clock.millis()).thenReturn(now);
+        long modSeq = todoSequence.allocate(1);
+
+        assertTrue(todoSequence.watermark() < modSeq);
+        when(clock.millis()).thenReturn(now + 5000);
+        assertTrue(todoSequence.watermark() >= modSeq);
+    }
+
+    @Test
+    @DisplayName("allocate - should throw exception, when a write takes more numbers than fit in a millisecond")
+    void allocate_shouldThrowExceptionWhenAWriteTakesTooManyNumbers() {
+        assertThrows(IllegalArgumentException.class, () -> todoSequence.allocate(TodoSequence.MAX_COUNT + 1));
+    }
+
+    private void instances(Long first, Long... more) {
+        Document[] counters = new Document[more.length];
+        for (int i = 0; i < more.length; i++) {
+            counters[i] = new Document("instances", more[i]);
+        }
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(TodoSequence.COLLECTION)))
+                .thenReturn(new Document("instances", first), counters);
+    }
+}
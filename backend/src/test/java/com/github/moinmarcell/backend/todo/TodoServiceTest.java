@@ -1,10 +1,23 @@
 package com.github.moinmarcell.backend.todo;
 
+import com.github.moinmarcell.backend.exception.BadRequestException;
+import com.github.moinmarcell.backend.exception.TodoNotFoundException;
+import org.bson.Document;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -12,12 +25,89 @@ import static org.mockito.Mockito.*;
 class TodoServiceTest {
 
     private final TodoRepository todoRepository = mock(TodoRepository.class);
-    private final TodoService todoService = new TodoService(todoRepository);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final TodoChangesService todoChangesService = mock(TodoChangesService.class);
+    private final TodoStatsService todoStatsService = new TodoStatsService(mongoTemplate, new TestTodoSequence(),
+            mock(TodoJobLease.class), Duration.ofHours(1));
+    private final TodoService todoService = new TodoService(todoRepository, mongoTemplate,
+            new TodoCache(100, Duration.ofMinutes(1)), new TestTodoSequence(), todoChangesService, todoStatsService, null, null);
 
     @Test
     @DisplayName("getTodos - should return empty list")
     void getTodos_shouldReturnEmptyList() {
-        assertEquals(0, todoService.getTodos().size());
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        TodoPage page = todoService.getTodos(null, null);
+        assertEquals(0, page.todos().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("getTodos - should return next cursor, when there are more todos")
+    void getTodos_shouldReturnNextCursorWhenThereAreMoreTodos() {
+        Todo first = new Todo("first", "description");
+        first.setId("id1");
+        Todo second = new Todo("second", "description");
+        second.setId("id2");
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(first, second), List.of(second));
+
+        TodoPage firstPage = todoService.getTodos(null, 1);
+        assertEquals(List.of(first), firstPage.todos());
+        assertNotNull(firstPage.nextCursor());
+
+        TodoPage secondPage = todoService.getTodos(firstPage.nextCursor(), 1);
+        assertEquals(List.of(second), secondPage.todos());
+        assertNull(secondPage.nextCursor());
+        verify(mongoTemplate).find(argThat((Query query) -> query.getQueryObject().get("id") != null), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodos - should only read todos of the default board")
+    void getTodos_shouldOnlyReadTodosOfTheDefaultBoard() {
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        todoService.getTodos(null, null);
+        verify(mongoTemplate).find(argThat((Query query) -> query.getQueryObject().get("boardId") != null), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodos - should serve page from cache until the snapshot changes")
+    void getTodos_shouldServePageFromCacheUntilTheSnapshotChanges() {
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        when(todoChangesService.snapshot()).thenReturn("1", "1", "2");
+        todoService.getTodos(null, null);
+        todoService.getTodos(null, null);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Todo.class));
+
+        todoService.getTodos(null, null);
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodos - should not cache page, when there is no snapshot")
+    void getTodos_shouldNotCachePageWhenThereIsNoSnapshot() {
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        todoService.getTodos(null, null);
+        todoService.getTodos(null, null);
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodos - should cap page size at max page size")
+    void getTodos_shouldCapPageSizeAtMaxPageSize() {
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of());
+        todoService.getTodos(null, 100_000);
+        verify(mongoTemplate).find(argThat((Query query) -> query.getLimit() == TodoService.MAX_PAGE_SIZE + 1), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodos - should throw exception, when limit is less than 1")
+    void getTodos_shouldThrowExceptionWhenLimitIsLessThan1() {
+        assertThrows(BadRequestException.class, () -> todoService.getTodos(null, 0));
+    }
+
+    @Test
+    @DisplayName("getTodos - should throw exception, when cursor is invalid")
+    void getTodos_shouldThrowExceptionWhenCursorIsInvalid() {
+        assertThrows(BadRequestException.class, () -> todoService.getTodos("not a cursor!", null));
     }
 
     @Test
@@ -28,6 +118,40 @@ class TodoServiceTest {
         assertEquals(todo, todoService.getTodo("id"));
     }
 
+    @Test
+    @DisplayName("getTodo - should serve repeated lookups from cache")
+    void getTodo_shouldServeRepeatedLookupsFromCache() {
+        Todo todo = new Todo("title", "description");
+        when(todoRepository.findById("id")).thenReturn(Optional.of(todo));
+        todoService.getTodo("id");
+        assertEquals(todo, todoService.getTodo("id"));
+        verify(todoRepository, times(1)).findById("id");
+    }
+
+    @Test
+    @DisplayName("getTodo - should return updated todo from cache after update")
+    void getTodo_shouldReturnUpdatedTodoFromCacheAfterUpdate() {
+        Todo updatedTodo = new Todo("titleUpdated", "descriptionUpdated");
+        updatedTodo.setId("id");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenReturn(updatedTodo);
+        todoService.updateTodo("id", new TodoDto("titleUpdated", "descriptionUpdated"));
+        assertEquals(updatedTodo, todoService.getTodo("id"));
+        verify(todoRepository, never()).findById("id");
+    }
+
+    @Test
+    @DisplayName("getTodo - should throw exception after delete, when todo was cached")
+    void getTodo_shouldThrowExceptionAfterDeleteWhenTodoWasCached() {
+        when(todoRepository.findById("id"))
+                .thenReturn(Optional.of(new Todo("title", "description")))
+                .thenReturn(Optional.empty());
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(new Todo("title", "description"));
+        todoService.getTodo("id");
+        todoService.deleteTodo("id");
+        assertThrows(NoSuchElementException.class, () -> todoService.getTodo("id"));
+    }
+
     @Test
     @DisplayName("getTodo - should throw exception")
     void getTodo_shouldThrowException() {
@@ -35,46 +159,183 @@ class TodoServiceTest {
         assertThrows(NoSuchElementException.class, () -> todoService.getTodo("id"));
     }
 
+    @Test
+    @DisplayName("getTodo - should not query mongo, when the id filter has never seen the id")
+    void getTodo_shouldNotQueryMongoWhenIdFilterHasNeverSeenTheId() {
+        TodoIdFilter todoIdFilter = new TodoIdFilter(mongoTemplate, 1000, 0.01);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), any())).thenReturn(Stream.empty());
+        todoIdFilter.load();
+        TodoService filteredTodoService = new TodoService(todoRepository, mongoTemplate, new TodoCache(100, Duration.ofMinutes(1)),
+                new TestTodoSequence(), todoChangesService, todoStatsService, null, todoIdFilter);
+        when(todoRepository.insert(any(Todo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(new Todo("title", "description"));
+
+        Todo todo = filteredTodoService.addTodo(new TodoDto("title", "description"));
+        filteredTodoService.deleteTodo(todo.getId());
+
+        assertThrows(TodoNotFoundException.class, () -> filteredTodoService.getTodo("unknown"));
+        assertThrows(TodoNotFoundException.class, () -> filteredTodoService.getTodo(todo.getId()));
+        assertThrows(TodoNotFoundException.class, () -> filteredTodoService.deleteTodo(todo.getId()));
+        verify(todoRepository, never()).findById(any());
+        verify(mongoTemplate, times(1)).findAndRemove(any(Query.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("getTodo - should throw an exception without stack trace")
+    void getTodo_shouldThrowExceptionWithoutStackTrace() {
+        when(todoRepository.findById("id")).thenReturn(Optional.empty());
+        TodoNotFoundException exception = assertThrows(TodoNotFoundException.class, () -> todoService.getTodo("id"));
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
     @Test
     @DisplayName("addTodo - should return newly created todo")
     void addTodo_shouldReturnSavedTodo() {
         TodoDto todoDto = new TodoDto("title", "description");
-        Todo todo = new Todo("title", "description");
-        when(todoRepository.save(todo)).thenReturn(todo);
-        assertEquals(todo, todoService.addTodo(todoDto));
+        when(todoRepository.insert(any(Todo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Todo savedTodo = todoService.addTodo(todoDto);
+        assertNotNull(savedTodo.getId());
+        assertEquals("title", savedTodo.getTitle());
+        assertEquals("description", savedTodo.getDescription());
     }
 
     @Test
     @DisplayName("updateTodo - should return updated todo")
     void updateTodo_shouldReturnUpdatedTodo() {
         TodoDto todoDto = new TodoDto("titleUpdated", "descriptionUpdated");
-        Todo existingTodo = new Todo("title", "description");
         Todo updatedTodo = new Todo("titleUpdated", "descriptionUpdated");
-        when(todoRepository.findById("id")).thenReturn(Optional.of(existingTodo));
-        when(todoRepository.save(updatedTodo)).thenReturn(updatedTodo);
+        updatedTodo.setId("id");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenReturn(updatedTodo);
         assertEquals(updatedTodo, todoService.updateTodo("id", todoDto));
+        verify(mongoTemplate, never()).exists(any(Query.class), eq(Todo.class));
     }
 
     @Test
     @DisplayName("updateTodo - should throw exception")
     void updateTodo_shouldThrowException() {
         TodoDto todoDto = new TodoDto("titleUpdated", "descriptionUpdated");
-        when(todoRepository.findById("id")).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenReturn(null);
         assertThrows(NoSuchElementException.class, () -> todoService.updateTodo("id", todoDto));
     }
 
+    @Test
+    @DisplayName("updateTodo - should throw conflict exception, when version does not match")
+    void updateTodo_shouldThrowConflictExceptionWhenVersionDoesNotMatch() {
+        TodoDto todoDto = new TodoDto("titleUpdated", "descriptionUpdated", 1L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Todo.class))).thenReturn(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> todoService.updateTodo("id", todoDto));
+    }
+
+    @Test
+    @DisplayName("moveTodo - should rank todo between neighbors and write only the moved todo")
+    void moveTodo_shouldRankTodoBetweenNeighbors() {
+        Todo previous = new Todo("previous", "description");
+        previous.setId("previous");
+        previous.setRank(TodoRank.initial(1_000));
+        previous.setStatus(TodoStatus.IN_PROGRESS);
+        Todo next = new Todo("next", "description");
+        next.setId("next");
+        next.setRank(TodoRank.initial(1_001));
+        next.setStatus(TodoStatus.IN_PROGRESS);
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(previous, next));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenAnswer(invocation -> {
+                    Update update = invocation.getArgument(1);
+                    String rank = (String) update.getUpdateObject().get("$set", Document.class).get("rank");
+                    assertTrue(previous.getRank().compareTo(rank) < 0);
+                    assertTrue(rank.compareTo(next.getRank()) < 0);
+                    Todo moved = new Todo("moved", "description");
+                    moved.setId("id");
+                    return moved;
+                });
+
+        todoService.moveTodo("id", new TodoMoveDto(TodoStatus.IN_PROGRESS, "previous", "next", null));
+        verify(mongoTemplate).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("moveTodo - should record the day the todo was moved to done, and clear it when it is moved out")
+    void moveTodo_shouldRecordTheDayTheTodoWasMovedToDone() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenAnswer(invocation -> {
+                    Update update = invocation.getArgument(1);
+                    Object status = update.getUpdateObject().get("$set", Document.class).get("status");
+                    String operator = status == TodoStatus.DONE ? "$min" : "$unset";
+                    assertTrue(update.getUpdateObject().get(operator, Document.class).containsKey("doneAt"));
+                    Todo moved = new Todo("moved", "description");
+                    moved.setId("id");
+                    moved.setDoneAt(LocalDate.now().minusDays(3));
+                    return moved;
+                });
+
+        Todo doneTodo = todoService.moveTodo("id", new TodoMoveDto(TodoStatus.DONE, null, null, null));
+        Todo reopenedTodo = todoService.moveTodo("id", new TodoMoveDto(TodoStatus.TODO, null, null, null));
+
+        assertEquals(LocalDate.now().minusDays(3), doneTodo.getDoneAt());
+        assertNull(reopenedTodo.getDoneAt());
+    }
+
+    @Test
+    @DisplayName("moveTodo - should throw conflict exception, when neighbor is not in the target column")
+    void moveTodo_shouldThrowConflictExceptionWhenNeighborIsNotInTargetColumn() {
+        Todo previous = new Todo("previous", "description");
+        previous.setId("previous");
+        when(mongoTemplate.find(any(Query.class), eq(Todo.class))).thenReturn(List.of(previous));
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> todoService.moveTodo("id", new TodoMoveDto(TodoStatus.DONE, "previous", null, null)));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class));
+    }
+
+    @Test
+    @DisplayName("moveTodo - should throw exception, when todo is moved next to itself")
+    void moveTodo_shouldThrowExceptionWhenMovedNextToItself() {
+        assertThrows(BadRequestException.class,
+                () -> todoService.moveTodo("id", new TodoMoveDto(TodoStatus.DONE, "id", null, null)));
+    }
+
     @Test
     @DisplayName("deleteTodo - should return delete message")
     void deleteTodo_shouldReturnDeleteMessage() {
-        Todo existingTodo = new Todo("title", "description");
-        when(todoRepository.findById("id")).thenReturn(Optional.of(existingTodo));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(new Todo("title", "description"));
         assertEquals("Deleted todo with id id", todoService.deleteTodo("id"));
     }
 
+    @Test
+    @DisplayName("deleteTodo - should throw conflict exception, when version does not match")
+    void deleteTodo_shouldThrowConflictExceptionWhenVersionDoesNotMatch() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(Todo.class))).thenReturn(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> todoService.deleteTodo("id", 1L));
+    }
+
     @Test
     @DisplayName("deleteTodo - should throw exception")
     void deleteTodo_shouldThrowException() {
-        when(todoRepository.findById("id")).thenReturn(Optional.empty());
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(null);
         assertThrows(NoSuchElementException.class, () -> todoService.deleteTodo("id"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getStats - should count added, moved and deleted todos without a scan")
+    void getStats_shouldCountAddedMovedAndDeletedTodos() {
+        when(todoRepository.insert(any(Todo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Todo first = todoService.addTodo(new TodoDto("first", "description"));
+        todoService.addTodo(new TodoDto("second", "description"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Todo.class)))
+                .thenReturn(first);
+        todoService.moveTodo(first.getId(), new TodoMoveDto(TodoStatus.DONE, null, null, null));
+        Todo deleted = new Todo("second", "description");
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Todo.class))).thenReturn(deleted);
+        todoService.deleteTodo("second");
+
+        TodoStats stats = todoStatsService.getStats();
+        assertEquals(1, stats.total());
+        assertEquals(Map.of(TodoStatus.TODO, 0L, TodoStatus.IN_PROGRESS, 0L, TodoStatus.DONE, 1L), stats.columns());
+        assertEquals(Map.of(LocalDate.now(), 1L), stats.createdPerDay());
+        verify(mongoTemplate, never()).count(any(Query.class), eq(Todo.class));
+    }
+}